@@ -4,8 +4,11 @@ import com.finance.common.Result;
 import com.finance.dto.request.AnnualPlanRequest;
 import com.finance.dto.response.AnnualPlanResponse;
 import com.finance.service.AnnualPlanService;
+import com.finance.service.DashboardCache;
+import com.finance.service.DataVersionService;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -14,13 +17,21 @@ import java.util.List;
 public class AnnualPlanController {
 
     private final AnnualPlanService annualPlanService;
+    private final DataVersionService dataVersionService;
+    private final DashboardCache dashboardCache;
 
-    public AnnualPlanController(AnnualPlanService annualPlanService) {
+    public AnnualPlanController(AnnualPlanService annualPlanService, DataVersionService dataVersionService,
+                                DashboardCache dashboardCache) {
         this.annualPlanService = annualPlanService;
+        this.dataVersionService = dataVersionService;
+        this.dashboardCache = dashboardCache;
     }
 
     @GetMapping("/{year}")
-    public Result<AnnualPlanResponse> getByYear(@PathVariable Integer year) {
+    public Result<AnnualPlanResponse> getByYear(@PathVariable Integer year, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
         return Result.success(annualPlanService.getByYear(year));
     }
 
@@ -37,12 +48,19 @@ public class AnnualPlanController {
     }
 
     @GetMapping("/{year}/summary")
-    public Result<AnnualPlanResponse> getSummary(@PathVariable Integer year) {
+    public Result<AnnualPlanResponse> getSummary(@PathVariable Integer year, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
         return Result.success(annualPlanService.getSummary(year));
     }
 
     @GetMapping("/years")
-    public Result<List<Integer>> getAvailableYears() {
-        return Result.success(annualPlanService.getAvailableYears());
+    public Result<List<Integer>> getAvailableYears(WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag())) {
+            return null;
+        }
+        return Result.success(dashboardCache.get("annual-plan-years", null, null,
+                annualPlanService::getAvailableYears));
     }
 }
@@ -1,9 +1,14 @@
 package com.finance.controller;
 
 import com.finance.common.Result;
+import com.finance.service.DashboardCache;
 import com.finance.service.DashboardService;
+import com.finance.service.DataVersionService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 
@@ -12,45 +17,112 @@ import java.util.Map;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardCache dashboardCache;
+    private final DataVersionService dataVersionService;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, DashboardCache dashboardCache,
+                               DataVersionService dataVersionService) {
         this.dashboardService = dashboardService;
+        this.dashboardCache = dashboardCache;
+        this.dataVersionService = dataVersionService;
     }
 
     @GetMapping("/overview")
     public Result<Map<String, Object>> getOverview(@RequestParam Integer year, 
-                                                    @RequestParam Integer month) {
-        return Result.success(dashboardService.getOverview(year, month));
+                                                    @RequestParam Integer month,
+                                                    WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
+        return Result.success(dashboardCache.get("overview", year, month,
+                () -> dashboardService.getOverview(year, month)));
     }
 
     @GetMapping("/asset-trend")
-    public Result<List<Map<String, Object>>> getAssetTrend(@RequestParam Integer year) {
-        return Result.success(dashboardService.getAssetTrend(year));
+    public Result<List<Map<String, Object>>> getAssetTrend(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            WebRequest webRequest) {
+        if (year != null && from == null && to == null) {
+            if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+                return null;
+            }
+            return Result.success(dashboardCache.get("asset-trend", year, null,
+                    () -> dashboardService.getAssetTrend(year)));
+        }
+        if (year == null && from != null && to != null) {
+            if (webRequest.checkNotModified(dataVersionService.etag())) {
+                return null;
+            }
+            return Result.success(dashboardCache.get("asset-trend:" + from + "~" + to, null, null,
+                    () -> dashboardService.getAssetTrend(from, to)));
+        }
+        throw new IllegalArgumentException("请传入 year，或同时传入 from 和 to（格式 yyyy-MM）");
     }
 
     @GetMapping("/income-expense-trend")
-    public Result<List<Map<String, Object>>> getIncomeExpenseTrend(@RequestParam Integer year) {
-        return Result.success(dashboardService.getIncomeExpenseTrend(year));
+    public Result<List<Map<String, Object>>> getIncomeExpenseTrend(@RequestParam Integer year, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
+        return Result.success(dashboardCache.get("income-expense-trend", year, null,
+                () -> dashboardService.getIncomeExpenseTrend(year)));
     }
 
     @GetMapping("/asset-distribution/{year}/{month}")
     public Result<List<Map<String, Object>>> getAssetDistribution(@PathVariable Integer year, 
-                                                                   @PathVariable Integer month) {
-        return Result.success(dashboardService.getAssetDistribution(year, month));
+                                                                   @PathVariable Integer month,
+                                                                   WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
+        return Result.success(dashboardCache.get("asset-distribution", year, month,
+                () -> dashboardService.getAssetDistribution(year, month)));
     }
 
     @GetMapping("/annual-progress/{year}")
-    public Result<Map<String, Object>> getAnnualProgress(@PathVariable Integer year) {
-        return Result.success(dashboardService.getAnnualProgress(year));
+    public Result<Map<String, Object>> getAnnualProgress(@PathVariable Integer year, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
+        return Result.success(dashboardCache.get("annual-progress", year, null,
+                () -> dashboardService.getAnnualProgress(year)));
+    }
+
+    @GetMapping("/yearly-summary")
+    public Result<List<Map<String, Object>>> getYearlySummaries(WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag())) {
+            return null;
+        }
+        return Result.success(dashboardCache.get("yearly-summary", null, null,
+                dashboardService::getYearlySummaries));
+    }
+
+    @GetMapping("/yearly-summary/{year}")
+    public Result<Map<String, Object>> getYearlySummary(@PathVariable Integer year, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
+        return Result.success(dashboardCache.get("yearly-summary", year, null,
+                () -> dashboardService.getYearlySummary(year)));
     }
 
     @GetMapping("/annual-target-trend/{year}")
-    public Result<Map<String, Object>> getAnnualTargetTrend(@PathVariable Integer year) {
-        return Result.success(dashboardService.getAnnualTargetTrend(year));
+    public Result<Map<String, Object>> getAnnualTargetTrend(@PathVariable Integer year, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
+        return Result.success(dashboardCache.get("annual-target-trend", year, null,
+                () -> dashboardService.getAnnualTargetTrend(year)));
     }
 
     @GetMapping("/budget-pie/{year}")
-    public Result<Map<String, Object>> getBudgetPie(@PathVariable Integer year) {
-        return Result.success(dashboardService.getBudgetPie(year));
+    public Result<Map<String, Object>> getBudgetPie(@PathVariable Integer year, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
+        return Result.success(dashboardCache.get("budget-pie", year, null,
+                () -> dashboardService.getBudgetPie(year)));
     }
 }
@@ -3,11 +3,13 @@ package com.finance.controller;
 import com.finance.common.Result;
 import com.finance.service.DataExportService;
 import com.finance.service.DataImportService;
+import com.finance.service.YearlyRollupService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -18,40 +20,50 @@ public class DataController {
 
     private final DataExportService dataExportService;
     private final DataImportService dataImportService;
+    private final YearlyRollupService yearlyRollupService;
 
-    public DataController(DataExportService dataExportService, DataImportService dataImportService) {
+    public DataController(DataExportService dataExportService, DataImportService dataImportService,
+                          YearlyRollupService yearlyRollupService) {
         this.dataExportService = dataExportService;
         this.dataImportService = dataImportService;
+        this.yearlyRollupService = yearlyRollupService;
     }
 
     // ==================== Export APIs ====================
 
     @GetMapping("/export/annual-plan/{year}")
-    public ResponseEntity<byte[]> exportAnnualPlan(@PathVariable Integer year) {
-        byte[] data = dataExportService.exportAnnualPlanToExcel(year);
+    public ResponseEntity<StreamingResponseBody> exportAnnualPlan(@PathVariable Integer year) {
+        dataExportService.checkAnnualPlanExists(year);
         String filename = year + "年度规划.xlsx";
-        return createExcelResponse(data, filename);
+        return createExcelResponse(out -> dataExportService.writeExcel(dataExportService.buildAnnualPlanWorkbook(year), out), filename);
     }
 
     @GetMapping("/export/monthly-records/{year}")
-    public ResponseEntity<byte[]> exportMonthlyRecords(@PathVariable Integer year) {
-        byte[] data = dataExportService.exportMonthlyRecordsToExcel(year);
+    public ResponseEntity<StreamingResponseBody> exportMonthlyRecords(@PathVariable Integer year) {
         String filename = year + "年月度记录.xlsx";
-        return createExcelResponse(data, filename);
+        return createExcelResponse(out -> dataExportService.writeExcel(dataExportService.buildMonthlyRecordsWorkbook(year), out), filename);
     }
 
     @GetMapping("/export/monthly-records/{year}/csv")
-    public ResponseEntity<byte[]> exportMonthlyRecordsCsv(@PathVariable Integer year) {
-        String csvData = dataExportService.exportMonthlyRecordsToCsv(year);
+    public ResponseEntity<StreamingResponseBody> exportMonthlyRecordsCsv(@PathVariable Integer year) {
         String filename = year + "年月度汇总.csv";
-        return createCsvResponse(csvData.getBytes(StandardCharsets.UTF_8), filename);
+        return createCsvResponse(out -> dataExportService.exportMonthlyRecordsToCsv(year, out), filename);
+    }
+
+    @GetMapping("/export/detail-lines/csv")
+    public ResponseEntity<StreamingResponseBody> exportDetailLinesCsv(@RequestParam Integer fromYear,
+                                                                      @RequestParam Integer toYear) {
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("起始年份不能晚于结束年份");
+        }
+        String filename = fromYear + "-" + toYear + "年月度明细.csv";
+        return createCsvResponse(out -> dataExportService.exportDetailLinesToCsv(fromYear, toYear, out), filename);
     }
 
     @GetMapping("/export/full/{year}")
-    public ResponseEntity<byte[]> exportFullData(@PathVariable Integer year) {
-        byte[] data = dataExportService.exportFullDataToExcel(year);
+    public ResponseEntity<StreamingResponseBody> exportFullData(@PathVariable Integer year) {
         String filename = year + "年财务数据.xlsx";
-        return createExcelResponse(data, filename);
+        return createExcelResponse(out -> dataExportService.writeExcel(dataExportService.buildFullDataWorkbook(year), out), filename);
     }
 
     // ==================== Import APIs ====================
@@ -73,20 +85,27 @@ public class DataController {
         return result.isSuccess() ? Result.success(result) : Result.error(400, String.join("; ", result.getMessages()));
     }
 
+    // ==================== Maintenance APIs ====================
+
+    @PostMapping("/rebuild/yearly-rollup")
+    public Result<Integer> rebuildYearlyRollup() {
+        return Result.success(yearlyRollupService.rebuildAll());
+    }
+
     // ==================== Helper Methods ====================
 
-    private ResponseEntity<byte[]> createExcelResponse(byte[] data, String filename) {
+    private ResponseEntity<StreamingResponseBody> createExcelResponse(StreamingResponseBody body, String filename) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         headers.setContentDispositionFormData("attachment", encodeFilename(filename));
-        return ResponseEntity.ok().headers(headers).body(data);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
-    private ResponseEntity<byte[]> createCsvResponse(byte[] data, String filename) {
+    private ResponseEntity<StreamingResponseBody> createCsvResponse(StreamingResponseBody body, String filename) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
         headers.setContentDispositionFormData("attachment", encodeFilename(filename));
-        return ResponseEntity.ok().headers(headers).body(data);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     private String encodeFilename(String filename) {
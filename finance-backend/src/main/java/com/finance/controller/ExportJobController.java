@@ -0,0 +1,60 @@
+package com.finance.controller;
+
+import com.finance.common.Result;
+import com.finance.dto.request.ExportJobRequest;
+import com.finance.dto.response.ExportJobResponse;
+import com.finance.service.ExportJobService;
+import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 后台导出任务：提交后轮询状态，完成后下载。大批量导出不占用请求线程
+ */
+@RestController
+@RequestMapping("/api/data/export-jobs")
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    public ExportJobController(ExportJobService exportJobService) {
+        this.exportJobService = exportJobService;
+    }
+
+    @PostMapping
+    public Result<ExportJobResponse> submit(@Valid @RequestBody ExportJobRequest request) {
+        return Result.success(exportJobService.submit(request));
+    }
+
+    @GetMapping("/{id}")
+    public Result<ExportJobResponse> getStatus(@PathVariable String id) {
+        return Result.success(exportJobService.getStatus(id));
+    }
+
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Resource> download(@PathVariable String id) {
+        ExportJobService.ResultFile file = exportJobService.getResultFile(id);
+        MediaType contentType = "csv".equals(file.type().getExtension())
+                ? MediaType.parseMediaType("text/csv; charset=UTF-8")
+                : MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(file.filename(), StandardCharsets.UTF_8)
+                .build());
+        return ResponseEntity.ok().headers(headers).body(new FileSystemResource(file.path()));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public Result<ExportJobResponse> cancel(@PathVariable String id) {
+        return Result.success(exportJobService.cancel(id));
+    }
+}
@@ -2,10 +2,14 @@ package com.finance.controller;
 
 import com.finance.common.Result;
 import com.finance.dto.request.MonthlyRecordRequest;
+import com.finance.dto.response.MonthlyDetailChangeResponse;
 import com.finance.dto.response.MonthlyRecordResponse;
+import com.finance.service.DashboardCache;
+import com.finance.service.DataVersionService;
 import com.finance.service.MonthlyRecordService;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -14,25 +18,50 @@ import java.util.List;
 public class MonthlyRecordController {
 
     private final MonthlyRecordService monthlyRecordService;
+    private final DataVersionService dataVersionService;
+    private final DashboardCache dashboardCache;
 
-    public MonthlyRecordController(MonthlyRecordService monthlyRecordService) {
+    public MonthlyRecordController(MonthlyRecordService monthlyRecordService, DataVersionService dataVersionService,
+                                   DashboardCache dashboardCache) {
         this.monthlyRecordService = monthlyRecordService;
+        this.dataVersionService = dataVersionService;
+        this.dashboardCache = dashboardCache;
     }
 
     @GetMapping("/{year}/{month}")
     public Result<MonthlyRecordResponse> getByYearAndMonth(@PathVariable Integer year, 
-                                                           @PathVariable Integer month) {
+                                                           @PathVariable Integer month,
+                                                           WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
         return Result.success(monthlyRecordService.getByYearAndMonth(year, month));
     }
 
     @GetMapping("/list")
-    public Result<List<MonthlyRecordResponse>> getByYear(@RequestParam Integer year) {
+    public Result<List<MonthlyRecordResponse>> getByYear(@RequestParam Integer year, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
         return Result.success(monthlyRecordService.getByYear(year));
     }
 
+    @GetMapping("/years")
+    public Result<List<Integer>> getAvailableYears(WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag())) {
+            return null;
+        }
+        return Result.success(dashboardCache.get("monthly-record-years", null, null,
+                monthlyRecordService::getAvailableYears));
+    }
+
     @GetMapping("/{year}/{month}/previous")
     public Result<MonthlyRecordResponse> getPreviousTemplate(@PathVariable Integer year, 
-                                                              @PathVariable Integer month) {
+                                                              @PathVariable Integer month,
+                                                              WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.etag(year))) {
+            return null;
+        }
         return Result.success(monthlyRecordService.getPreviousTemplate(year, month));
     }
 
@@ -52,4 +81,85 @@ public class MonthlyRecordController {
         monthlyRecordService.delete(id);
         return Result.success();
     }
+
+    @DeleteMapping("/year/{year}")
+    public Result<Integer> deleteByYear(@PathVariable Integer year) {
+        return Result.success(monthlyRecordService.deleteByYear(year));
+    }
+
+    @PostMapping("/{id}/asset-details")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.AssetDetailVo>> addAssetDetail(
+            @PathVariable Long id, @Valid @RequestBody MonthlyRecordRequest.AssetDetailDto dto) {
+        return Result.success(monthlyRecordService.addAssetDetail(id, dto));
+    }
+
+    @PatchMapping("/{id}/asset-details/{detailId}")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.AssetDetailVo>> updateAssetDetail(
+            @PathVariable Long id, @PathVariable Long detailId,
+            @Valid @RequestBody MonthlyRecordRequest.AssetDetailDto dto) {
+        return Result.success(monthlyRecordService.updateAssetDetail(id, detailId, dto));
+    }
+
+    @DeleteMapping("/{id}/asset-details/{detailId}")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.AssetDetailVo>> deleteAssetDetail(
+            @PathVariable Long id, @PathVariable Long detailId) {
+        return Result.success(monthlyRecordService.deleteAssetDetail(id, detailId));
+    }
+
+    @PostMapping("/{id}/liability-details")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.LiabilityDetailVo>> addLiabilityDetail(
+            @PathVariable Long id, @Valid @RequestBody MonthlyRecordRequest.LiabilityDetailDto dto) {
+        return Result.success(monthlyRecordService.addLiabilityDetail(id, dto));
+    }
+
+    @PatchMapping("/{id}/liability-details/{detailId}")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.LiabilityDetailVo>> updateLiabilityDetail(
+            @PathVariable Long id, @PathVariable Long detailId,
+            @Valid @RequestBody MonthlyRecordRequest.LiabilityDetailDto dto) {
+        return Result.success(monthlyRecordService.updateLiabilityDetail(id, detailId, dto));
+    }
+
+    @DeleteMapping("/{id}/liability-details/{detailId}")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.LiabilityDetailVo>> deleteLiabilityDetail(
+            @PathVariable Long id, @PathVariable Long detailId) {
+        return Result.success(monthlyRecordService.deleteLiabilityDetail(id, detailId));
+    }
+
+    @PostMapping("/{id}/income-details")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.IncomeDetailVo>> addIncomeDetail(
+            @PathVariable Long id, @Valid @RequestBody MonthlyRecordRequest.IncomeDetailDto dto) {
+        return Result.success(monthlyRecordService.addIncomeDetail(id, dto));
+    }
+
+    @PatchMapping("/{id}/income-details/{detailId}")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.IncomeDetailVo>> updateIncomeDetail(
+            @PathVariable Long id, @PathVariable Long detailId,
+            @Valid @RequestBody MonthlyRecordRequest.IncomeDetailDto dto) {
+        return Result.success(monthlyRecordService.updateIncomeDetail(id, detailId, dto));
+    }
+
+    @DeleteMapping("/{id}/income-details/{detailId}")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.IncomeDetailVo>> deleteIncomeDetail(
+            @PathVariable Long id, @PathVariable Long detailId) {
+        return Result.success(monthlyRecordService.deleteIncomeDetail(id, detailId));
+    }
+
+    @PostMapping("/{id}/expense-details")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.ExpenseDetailVo>> addExpenseDetail(
+            @PathVariable Long id, @Valid @RequestBody MonthlyRecordRequest.ExpenseDetailDto dto) {
+        return Result.success(monthlyRecordService.addExpenseDetail(id, dto));
+    }
+
+    @PatchMapping("/{id}/expense-details/{detailId}")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.ExpenseDetailVo>> updateExpenseDetail(
+            @PathVariable Long id, @PathVariable Long detailId,
+            @Valid @RequestBody MonthlyRecordRequest.ExpenseDetailDto dto) {
+        return Result.success(monthlyRecordService.updateExpenseDetail(id, detailId, dto));
+    }
+
+    @DeleteMapping("/{id}/expense-details/{detailId}")
+    public Result<MonthlyDetailChangeResponse<MonthlyRecordResponse.ExpenseDetailVo>> deleteExpenseDetail(
+            @PathVariable Long id, @PathVariable Long detailId) {
+        return Result.success(monthlyRecordService.deleteExpenseDetail(id, detailId));
+    }
 }
@@ -0,0 +1,32 @@
+package com.finance.dto.request;
+
+import com.finance.enums.ExportJobType;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * 提交导出任务：DETAIL_LINES_CSV 使用 fromYear/toYear，其余类型使用 year
+ */
+public class ExportJobRequest {
+
+    @NotNull(message = "导出类型不能为空")
+    private ExportJobType type;
+
+    private Integer year;
+
+    private Integer fromYear;
+
+    private Integer toYear;
+
+    // Getters and Setters
+    public ExportJobType getType() { return type; }
+    public void setType(ExportJobType type) { this.type = type; }
+
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+
+    public Integer getFromYear() { return fromYear; }
+    public void setFromYear(Integer fromYear) { this.fromYear = fromYear; }
+
+    public Integer getToYear() { return toYear; }
+    public void setToYear(Integer toYear) { this.toYear = toYear; }
+}
@@ -0,0 +1,53 @@
+package com.finance.dto.response;
+
+import com.finance.enums.ExportJobStatus;
+import com.finance.enums.ExportJobType;
+
+import java.time.LocalDateTime;
+
+/**
+ * 导出任务状态；progress 为 0-100 的百分比，expiresAt 之后结果文件会被清理
+ */
+public class ExportJobResponse {
+    private String id;
+    private ExportJobType type;
+    private ExportJobStatus status;
+    private String statusLabel;
+    private Integer progress;
+    private String filename;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime expiresAt;
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public ExportJobType getType() { return type; }
+    public void setType(ExportJobType type) { this.type = type; }
+
+    public ExportJobStatus getStatus() { return status; }
+    public void setStatus(ExportJobStatus status) { this.status = status; }
+
+    public String getStatusLabel() { return statusLabel; }
+    public void setStatusLabel(String statusLabel) { this.statusLabel = statusLabel; }
+
+    public Integer getProgress() { return progress; }
+    public void setProgress(Integer progress) { this.progress = progress; }
+
+    public String getFilename() { return filename; }
+    public void setFilename(String filename) { this.filename = filename; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,57 @@
+package com.finance.dto.response;
+
+import com.finance.entity.MonthlyRecord;
+
+import java.math.BigDecimal;
+
+/**
+ * 单行明细增删改的返回：变更后的明细行（删除时为 null）和记录的最新汇总
+ */
+public class MonthlyDetailChangeResponse<T> {
+    private Long recordId;
+    private T detail;
+    private BigDecimal totalAsset;
+    private BigDecimal totalLiability;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private BigDecimal netWorth;
+    private BigDecimal surplus;
+
+    public static <T> MonthlyDetailChangeResponse<T> of(MonthlyRecord record, T detail) {
+        MonthlyDetailChangeResponse<T> response = new MonthlyDetailChangeResponse<>();
+        response.setRecordId(record.getId());
+        response.setDetail(detail);
+        response.setTotalAsset(record.getTotalAsset());
+        response.setTotalLiability(record.getTotalLiability());
+        response.setTotalIncome(record.getTotalIncome());
+        response.setTotalExpense(record.getTotalExpense());
+        response.setNetWorth(record.getNetWorth());
+        response.setSurplus(record.getSurplus());
+        return response;
+    }
+
+    // Getters and Setters
+    public Long getRecordId() { return recordId; }
+    public void setRecordId(Long recordId) { this.recordId = recordId; }
+
+    public T getDetail() { return detail; }
+    public void setDetail(T detail) { this.detail = detail; }
+
+    public BigDecimal getTotalAsset() { return totalAsset; }
+    public void setTotalAsset(BigDecimal totalAsset) { this.totalAsset = totalAsset; }
+
+    public BigDecimal getTotalLiability() { return totalLiability; }
+    public void setTotalLiability(BigDecimal totalLiability) { this.totalLiability = totalLiability; }
+
+    public BigDecimal getTotalIncome() { return totalIncome; }
+    public void setTotalIncome(BigDecimal totalIncome) { this.totalIncome = totalIncome; }
+
+    public BigDecimal getTotalExpense() { return totalExpense; }
+    public void setTotalExpense(BigDecimal totalExpense) { this.totalExpense = totalExpense; }
+
+    public BigDecimal getNetWorth() { return netWorth; }
+    public void setNetWorth(BigDecimal netWorth) { this.netWorth = netWorth; }
+
+    public BigDecimal getSurplus() { return surplus; }
+    public void setSurplus(BigDecimal surplus) { this.surplus = surplus; }
+}
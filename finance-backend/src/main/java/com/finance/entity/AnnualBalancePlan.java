@@ -1,6 +1,10 @@
 package com.finance.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -8,12 +12,16 @@ import java.util.List;
 
 @Entity
 @Table(name = "annual_balance_plan", uniqueConstraints = @UniqueConstraint(columnNames = "plan_year"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class AnnualBalancePlan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "annual_balance_plan_seq")
+    @SequenceGenerator(name = "annual_balance_plan_seq", sequenceName = "annual_balance_plan_seq", allocationSize = 50)
     private Long id;
 
+    @NaturalId
     @Column(name = "plan_year", nullable = false, unique = true)
     private Integer year;
 
@@ -25,18 +33,22 @@ public class AnnualBalancePlan {
 
     @OneToMany(mappedBy = "annualPlan", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("sortOrder ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<AssetTarget> assetTargets = new ArrayList<>();
 
     @OneToMany(mappedBy = "annualPlan", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("sortOrder ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<LiabilityTarget> liabilityTargets = new ArrayList<>();
 
     @OneToMany(mappedBy = "annualPlan", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("sortOrder ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<AnnualIncome> annualIncomes = new ArrayList<>();
 
     @OneToMany(mappedBy = "annualPlan", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("sortOrder ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<AnnualExpense> annualExpenses = new ArrayList<>();
 
     @Column(name = "created_at")
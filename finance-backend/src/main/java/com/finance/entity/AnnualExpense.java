@@ -2,14 +2,20 @@ package com.finance.entity;
 
 import com.finance.enums.ExpenseCategory;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "annual_expense")
+@Table(name = "annual_expense", indexes = @Index(name = "idx_annual_expense_plan_sort", columnList = "annual_plan_id, sort_order"))
+@BatchSize(size = 50)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class AnnualExpense {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "annual_expense_seq")
+    @SequenceGenerator(name = "annual_expense_seq", sequenceName = "annual_expense_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
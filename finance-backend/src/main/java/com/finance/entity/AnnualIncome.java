@@ -2,14 +2,18 @@ package com.finance.entity;
 
 import com.finance.enums.IncomeType;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "annual_income")
+@Table(name = "annual_income", indexes = @Index(name = "idx_annual_income_plan_sort", columnList = "annual_plan_id, sort_order"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class AnnualIncome {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "annual_income_seq")
+    @SequenceGenerator(name = "annual_income_seq", sequenceName = "annual_income_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -2,14 +2,18 @@ package com.finance.entity;
 
 import com.finance.enums.AssetGroup;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "asset_target")
+@Table(name = "asset_target", indexes = @Index(name = "idx_asset_target_plan_sort", columnList = "annual_plan_id, sort_order"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class AssetTarget {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asset_target_seq")
+    @SequenceGenerator(name = "asset_target_seq", sequenceName = "asset_target_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
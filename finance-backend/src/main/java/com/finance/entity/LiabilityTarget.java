@@ -2,14 +2,18 @@ package com.finance.entity;
 
 import com.finance.enums.LiabilityGroup;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "liability_target")
+@Table(name = "liability_target", indexes = @Index(name = "idx_liability_target_plan_sort", columnList = "annual_plan_id, sort_order"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class LiabilityTarget {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "liability_target_seq")
+    @SequenceGenerator(name = "liability_target_seq", sequenceName = "liability_target_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -5,11 +5,15 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "monthly_asset_detail")
+@Table(name = "monthly_asset_detail", indexes = {
+        @Index(name = "idx_asset_detail_record_sort", columnList = "monthly_record_id, sort_order"),
+        @Index(name = "idx_asset_detail_record_group", columnList = "monthly_record_id, asset_group, amount")
+})
 public class MonthlyAssetDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "monthly_asset_detail_seq")
+    @SequenceGenerator(name = "monthly_asset_detail_seq", sequenceName = "monthly_asset_detail_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
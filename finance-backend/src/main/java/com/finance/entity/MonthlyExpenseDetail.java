@@ -4,11 +4,15 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "monthly_expense_detail")
+@Table(name = "monthly_expense_detail", indexes = {
+        @Index(name = "idx_expense_detail_record_sort", columnList = "monthly_record_id, sort_order"),
+        @Index(name = "idx_expense_detail_annual_expense", columnList = "annual_expense_id")
+})
 public class MonthlyExpenseDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "monthly_expense_detail_seq")
+    @SequenceGenerator(name = "monthly_expense_detail_seq", sequenceName = "monthly_expense_detail_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -4,11 +4,12 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "monthly_income_detail")
+@Table(name = "monthly_income_detail", indexes = @Index(name = "idx_income_detail_record_sort", columnList = "monthly_record_id, sort_order"))
 public class MonthlyIncomeDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "monthly_income_detail_seq")
+    @SequenceGenerator(name = "monthly_income_detail_seq", sequenceName = "monthly_income_detail_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
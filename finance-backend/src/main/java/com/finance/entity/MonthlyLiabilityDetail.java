@@ -4,11 +4,12 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "monthly_liability_detail")
+@Table(name = "monthly_liability_detail", indexes = @Index(name = "idx_liability_detail_record_sort", columnList = "monthly_record_id, sort_order"))
 public class MonthlyLiabilityDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "monthly_liability_detail_seq")
+    @SequenceGenerator(name = "monthly_liability_detail_seq", sequenceName = "monthly_liability_detail_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,6 +1,7 @@
 package com.finance.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -11,7 +12,8 @@ import java.util.List;
 public class MonthlyRecord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "monthly_record_seq")
+    @SequenceGenerator(name = "monthly_record_seq", sequenceName = "monthly_record_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "record_year", nullable = false)
@@ -35,20 +37,29 @@ public class MonthlyRecord {
     @Column(length = 1000)
     private String summary;
 
+    // 单行增删改按差额更新汇总列，并发写入同一条记录时靠版本号检测冲突
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "monthlyRecord", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("sortOrder ASC")
+    @BatchSize(size = 12)
     private List<MonthlyAssetDetail> assetDetails = new ArrayList<>();
 
     @OneToMany(mappedBy = "monthlyRecord", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("sortOrder ASC")
+    @BatchSize(size = 12)
     private List<MonthlyLiabilityDetail> liabilityDetails = new ArrayList<>();
 
     @OneToMany(mappedBy = "monthlyRecord", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("sortOrder ASC")
+    @BatchSize(size = 12)
     private List<MonthlyIncomeDetail> incomeDetails = new ArrayList<>();
 
     @OneToMany(mappedBy = "monthlyRecord", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("sortOrder ASC")
+    @BatchSize(size = 12)
     private List<MonthlyExpenseDetail> expenseDetails = new ArrayList<>();
 
     @Column(name = "created_at")
@@ -78,6 +89,8 @@ public class MonthlyRecord {
     public Integer getMonth() { return month; }
     public void setMonth(Integer month) { this.month = month; }
 
+    public Long getVersion() { return version; }
+
     public BigDecimal getTotalAsset() { return totalAsset; }
     public void setTotalAsset(BigDecimal totalAsset) { this.totalAsset = totalAsset; }
 
@@ -132,6 +145,22 @@ public class MonthlyRecord {
         detail.setMonthlyRecord(this);
     }
 
+    public void adjustTotalAsset(BigDecimal delta) {
+        totalAsset = totalAsset.add(delta);
+    }
+
+    public void adjustTotalLiability(BigDecimal delta) {
+        totalLiability = totalLiability.add(delta);
+    }
+
+    public void adjustTotalIncome(BigDecimal delta) {
+        totalIncome = totalIncome.add(delta);
+    }
+
+    public void adjustTotalExpense(BigDecimal delta) {
+        totalExpense = totalExpense.add(delta);
+    }
+
     public BigDecimal getNetWorth() {
         return totalAsset.subtract(totalLiability);
     }
@@ -0,0 +1,97 @@
+package com.finance.entity;
+
+import com.finance.enums.ExpenseCategory;
+import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 年度汇总，由月度记录写入时在同一事务内刷新
+ */
+@Entity
+@Table(name = "yearly_rollup")
+public class YearlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "yearly_rollup_seq")
+    @SequenceGenerator(name = "yearly_rollup_seq", sequenceName = "yearly_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "rollup_year", nullable = false, unique = true)
+    private Integer year;
+
+    @Column(name = "month_count", nullable = false)
+    private Integer monthCount = 0;
+
+    @Column(name = "total_income", precision = 15, scale = 2)
+    private BigDecimal totalIncome = BigDecimal.ZERO;
+
+    @Column(name = "total_expense", precision = 15, scale = 2)
+    private BigDecimal totalExpense = BigDecimal.ZERO;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal surplus = BigDecimal.ZERO;
+
+    @Column(name = "start_net_worth", precision = 15, scale = 2)
+    private BigDecimal startNetWorth = BigDecimal.ZERO;
+
+    @Column(name = "end_net_worth", precision = 15, scale = 2)
+    private BigDecimal endNetWorth = BigDecimal.ZERO;
+
+    @Column(name = "net_worth_delta", precision = 15, scale = 2)
+    private BigDecimal netWorthDelta = BigDecimal.ZERO;
+
+    @ElementCollection
+    @BatchSize(size = 20)
+    @CollectionTable(name = "yearly_rollup_category", joinColumns = @JoinColumn(name = "rollup_id"))
+    @MapKeyEnumerated(EnumType.STRING)
+    @MapKeyColumn(name = "category")
+    @Column(name = "amount", precision = 15, scale = 2)
+    private Map<ExpenseCategory, BigDecimal> categorySpend = new EnumMap<>(ExpenseCategory.class);
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+
+    public Integer getMonthCount() { return monthCount; }
+    public void setMonthCount(Integer monthCount) { this.monthCount = monthCount; }
+
+    public BigDecimal getTotalIncome() { return totalIncome; }
+    public void setTotalIncome(BigDecimal totalIncome) { this.totalIncome = totalIncome; }
+
+    public BigDecimal getTotalExpense() { return totalExpense; }
+    public void setTotalExpense(BigDecimal totalExpense) { this.totalExpense = totalExpense; }
+
+    public BigDecimal getSurplus() { return surplus; }
+    public void setSurplus(BigDecimal surplus) { this.surplus = surplus; }
+
+    public BigDecimal getStartNetWorth() { return startNetWorth; }
+    public void setStartNetWorth(BigDecimal startNetWorth) { this.startNetWorth = startNetWorth; }
+
+    public BigDecimal getEndNetWorth() { return endNetWorth; }
+    public void setEndNetWorth(BigDecimal endNetWorth) { this.endNetWorth = endNetWorth; }
+
+    public BigDecimal getNetWorthDelta() { return netWorthDelta; }
+    public void setNetWorthDelta(BigDecimal netWorthDelta) { this.netWorthDelta = netWorthDelta; }
+
+    public Map<ExpenseCategory, BigDecimal> getCategorySpend() { return categorySpend; }
+    public void setCategorySpend(Map<ExpenseCategory, BigDecimal> categorySpend) { this.categorySpend = categorySpend; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,19 @@
+package com.finance.enums;
+
+public enum ExportJobStatus {
+    QUEUED("排队中"),
+    RUNNING("导出中"),
+    SUCCEEDED("已完成"),
+    FAILED("失败"),
+    CANCELLED("已取消");
+
+    private final String label;
+
+    ExportJobStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,19 @@
+package com.finance.enums;
+
+public enum ExportJobType {
+    ANNUAL_PLAN("xlsx"),
+    MONTHLY_RECORDS("xlsx"),
+    MONTHLY_RECORDS_CSV("csv"),
+    DETAIL_LINES_CSV("csv"),
+    FULL_DATA("xlsx");
+
+    private final String extension;
+
+    ExportJobType(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
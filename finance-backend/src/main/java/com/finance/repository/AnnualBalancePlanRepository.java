@@ -2,12 +2,15 @@ package com.finance.repository;
 
 import com.finance.entity.AnnualBalancePlan;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.List;
 
 @Repository
-public interface AnnualBalancePlanRepository extends JpaRepository<AnnualBalancePlan, Long> {
-    Optional<AnnualBalancePlan> findByYear(Integer year);
+public interface AnnualBalancePlanRepository extends JpaRepository<AnnualBalancePlan, Long>, AnnualBalancePlanRepositoryCustom {
     boolean existsByYear(Integer year);
+    
+    @Query("SELECT DISTINCT p.year FROM AnnualBalancePlan p ORDER BY p.year ASC")
+    List<Integer> findDistinctYears();
 }
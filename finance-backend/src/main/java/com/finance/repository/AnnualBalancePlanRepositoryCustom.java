@@ -0,0 +1,13 @@
+package com.finance.repository;
+
+import com.finance.entity.AnnualBalancePlan;
+
+import java.util.Optional;
+
+public interface AnnualBalancePlanRepositoryCustom {
+
+    /**
+     * 按自然主键 year 查找，先查二级缓存，命中时不访问数据库
+     */
+    Optional<AnnualBalancePlan> findByYear(Integer year);
+}
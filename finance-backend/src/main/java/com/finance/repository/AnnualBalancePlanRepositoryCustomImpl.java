@@ -0,0 +1,23 @@
+package com.finance.repository;
+
+import com.finance.entity.AnnualBalancePlan;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+class AnnualBalancePlanRepositoryCustomImpl implements AnnualBalancePlanRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    AnnualBalancePlanRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<AnnualBalancePlan> findByYear(Integer year) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(AnnualBalancePlan.class)
+                .loadOptional(year);
+    }
+}
@@ -2,11 +2,41 @@ package com.finance.repository;
 
 import com.finance.entity.AnnualExpense;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
 public interface AnnualExpenseRepository extends JpaRepository<AnnualExpense, Long> {
-    List<AnnualExpense> findByAnnualPlanIdOrderBySortOrder(Long annualPlanId);
+    /**
+     * 直接按外键列过滤：派生查询会 left join 父表再按父表主键过滤，用不上子表索引
+     */
+    @Query("SELECT t FROM AnnualExpense t WHERE t.annualPlan.id = :annualPlanId ORDER BY t.sortOrder")
+    List<AnnualExpense> findByAnnualPlanIdOrderBySortOrder(@Param("annualPlanId") Long annualPlanId);
+
+    /**
+     * 在数据库里原子地累加已支出金额，并发写入同一预算项时不会丢失差额；只更新该年度规划下的预算项。
+     * 批量更新后 Hibernate 会清掉 AnnualExpense 的二级缓存区域，当前会话里已加载的实体不会刷新
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AnnualExpense e SET e.spentAmount = COALESCE(e.spentAmount, 0) + :delta " +
+           "WHERE e.id = :id AND e.annualPlan.id IN (SELECT p.id FROM AnnualBalancePlan p WHERE p.year = :year)")
+    int addSpentAmount(@Param("id") Long id, @Param("year") Integer year, @Param("delta") BigDecimal delta);
+
+    /**
+     * 用一条关联子查询的 UPDATE 把所有预算项的已支出金额改成同年明细的合计，只改不一致的行，返回修正的条数。
+     * 计算和写入在同一条语句里完成，不会覆盖并发写入刚累加的差额
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AnnualExpense e SET e.spentAmount = (" +
+           "SELECT COALESCE(SUM(d.amount), 0) FROM MonthlyExpenseDetail d WHERE d.annualExpense.id = e.id " +
+           "AND d.monthlyRecord.year = (SELECT p.year FROM AnnualBalancePlan p WHERE p.id = e.annualPlan.id)) " +
+           "WHERE e.spentAmount IS NULL OR e.spentAmount <> (" +
+           "SELECT COALESCE(SUM(d.amount), 0) FROM MonthlyExpenseDetail d WHERE d.annualExpense.id = e.id " +
+           "AND d.monthlyRecord.year = (SELECT p.year FROM AnnualBalancePlan p WHERE p.id = e.annualPlan.id))")
+    int reconcileSpentAmounts();
 }
@@ -2,12 +2,20 @@ package com.finance.repository;
 
 import com.finance.entity.AnnualIncome;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface AnnualIncomeRepository extends JpaRepository<AnnualIncome, Long> {
-    List<AnnualIncome> findByAnnualPlanIdOrderBySortOrder(Long annualPlanId);
-    List<AnnualIncome> findByAnnualPlanIdAndIsMonthlyTrue(Long annualPlanId);
+    /**
+     * 直接按外键列过滤：派生查询会 left join 父表再按父表主键过滤，用不上子表索引
+     */
+    @Query("SELECT t FROM AnnualIncome t WHERE t.annualPlan.id = :annualPlanId ORDER BY t.sortOrder")
+    List<AnnualIncome> findByAnnualPlanIdOrderBySortOrder(@Param("annualPlanId") Long annualPlanId);
+
+    @Query("SELECT t FROM AnnualIncome t WHERE t.annualPlan.id = :annualPlanId AND t.isMonthly = true")
+    List<AnnualIncome> findByAnnualPlanIdAndIsMonthlyTrue(@Param("annualPlanId") Long annualPlanId);
 }
@@ -1,12 +1,23 @@
 package com.finance.repository;
 
 import com.finance.entity.AssetTarget;
+import com.finance.repository.projection.AssetGroupAmount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface AssetTargetRepository extends JpaRepository<AssetTarget, Long> {
-    List<AssetTarget> findByAnnualPlanIdOrderBySortOrder(Long annualPlanId);
+    /**
+     * 直接按外键列过滤：派生查询会 left join 父表再按父表主键过滤，用不上子表索引
+     */
+    @Query("SELECT t FROM AssetTarget t WHERE t.annualPlan.id = :annualPlanId ORDER BY t.sortOrder")
+    List<AssetTarget> findByAnnualPlanIdOrderBySortOrder(@Param("annualPlanId") Long annualPlanId);
+    
+    @Query("SELECT t.assetGroup AS assetGroup, SUM(t.targetAmount) AS amount FROM AssetTarget t " +
+           "WHERE t.annualPlan.year = :year GROUP BY t.assetGroup")
+    List<AssetGroupAmount> sumTargetAmountGroupByAssetGroup(@Param("year") Integer year);
 }
@@ -2,11 +2,17 @@ package com.finance.repository;
 
 import com.finance.entity.LiabilityTarget;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface LiabilityTargetRepository extends JpaRepository<LiabilityTarget, Long> {
-    List<LiabilityTarget> findByAnnualPlanIdOrderBySortOrder(Long annualPlanId);
+    /**
+     * 直接按外键列过滤：派生查询会 left join 父表再按父表主键过滤，用不上子表索引
+     */
+    @Query("SELECT t FROM LiabilityTarget t WHERE t.annualPlan.id = :annualPlanId ORDER BY t.sortOrder")
+    List<LiabilityTarget> findByAnnualPlanIdOrderBySortOrder(@Param("annualPlanId") Long annualPlanId);
 }
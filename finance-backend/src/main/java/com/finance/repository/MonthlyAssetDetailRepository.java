@@ -2,19 +2,54 @@ package com.finance.repository;
 
 import com.finance.entity.MonthlyAssetDetail;
 import com.finance.enums.AssetGroup;
+import com.finance.repository.projection.AssetGroupAmount;
+import com.finance.repository.projection.DetailLineView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MonthlyAssetDetailRepository extends JpaRepository<MonthlyAssetDetail, Long> {
-    List<MonthlyAssetDetail> findByMonthlyRecordIdOrderBySortOrder(Long monthlyRecordId);
-    List<MonthlyAssetDetail> findByMonthlyRecordIdAndAssetGroupOrderBySortOrder(Long monthlyRecordId, AssetGroup assetGroup);
+    /**
+     * 直接按外键列过滤：派生查询会 left join 父表再按父表主键过滤，用不上子表索引
+     */
+    @Query("SELECT d FROM MonthlyAssetDetail d WHERE d.monthlyRecord.id = :monthlyRecordId ORDER BY d.sortOrder")
+    List<MonthlyAssetDetail> findByMonthlyRecordIdOrderBySortOrder(@Param("monthlyRecordId") Long monthlyRecordId);
+
+    @Query("SELECT d FROM MonthlyAssetDetail d WHERE d.id = :id AND d.monthlyRecord.id = :monthlyRecordId")
+    Optional<MonthlyAssetDetail> findByIdAndMonthlyRecordId(@Param("id") Long id, @Param("monthlyRecordId") Long monthlyRecordId);
+
+    @Query("SELECT d FROM MonthlyAssetDetail d WHERE d.monthlyRecord.id = :monthlyRecordId AND d.assetGroup = :assetGroup ORDER BY d.sortOrder")
+    List<MonthlyAssetDetail> findByMonthlyRecordIdAndAssetGroupOrderBySortOrder(@Param("monthlyRecordId") Long monthlyRecordId, @Param("assetGroup") AssetGroup assetGroup);
     
     @Query("SELECT SUM(d.amount) FROM MonthlyAssetDetail d WHERE d.monthlyRecord.id = :recordId AND d.assetGroup = :group")
     BigDecimal sumAmountByRecordIdAndGroup(@Param("recordId") Long recordId, @Param("group") AssetGroup group);
+    
+    @Query("SELECT d.assetGroup AS assetGroup, SUM(d.amount) AS amount FROM MonthlyAssetDetail d " +
+           "WHERE d.monthlyRecord.year = :year AND d.monthlyRecord.month = :month GROUP BY d.assetGroup")
+    List<AssetGroupAmount> sumAmountGroupByAssetGroup(@Param("year") Integer year, @Param("month") Integer month);
+    
+    /**
+     * 按年份区间流式读取资产明细，category 为 AssetGroup 的枚举名；需要在事务内消费并关闭
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r.year AS year, r.month AS month, CAST(d.assetGroup AS String) AS category, d.name AS name, d.amount AS amount, '' AS remark " +
+           "FROM MonthlyAssetDetail d JOIN d.monthlyRecord r WHERE r.year BETWEEN :fromYear AND :toYear " +
+           "ORDER BY r.year ASC, r.month ASC, d.sortOrder ASC")
+    Stream<DetailLineView> streamLinesBetween(@Param("fromYear") Integer fromYear, @Param("toYear") Integer toYear);
+    
+    @Modifying
+    @Query("DELETE FROM MonthlyAssetDetail d WHERE d.monthlyRecord.id IN :recordIds")
+    int deleteByMonthlyRecordIds(@Param("recordIds") Collection<Long> recordIds);
 }
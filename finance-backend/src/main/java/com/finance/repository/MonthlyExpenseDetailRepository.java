@@ -1,19 +1,39 @@
 package com.finance.repository;
 
 import com.finance.entity.MonthlyExpenseDetail;
+import com.finance.repository.projection.AnnualExpenseSpent;
+import com.finance.repository.projection.DetailLineView;
+import com.finance.repository.projection.ExpenseCategoryAmount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MonthlyExpenseDetailRepository extends JpaRepository<MonthlyExpenseDetail, Long> {
-    List<MonthlyExpenseDetail> findByMonthlyRecordIdOrderBySortOrder(Long monthlyRecordId);
-    List<MonthlyExpenseDetail> findByAnnualExpenseId(Long annualExpenseId);
+    /**
+     * 直接按外键列过滤：派生查询会 left join 父表再按父表主键过滤，用不上子表索引
+     */
+    @Query("SELECT d FROM MonthlyExpenseDetail d WHERE d.monthlyRecord.id = :monthlyRecordId ORDER BY d.sortOrder")
+    List<MonthlyExpenseDetail> findByMonthlyRecordIdOrderBySortOrder(@Param("monthlyRecordId") Long monthlyRecordId);
+
+    @Query("SELECT d FROM MonthlyExpenseDetail d WHERE d.id = :id AND d.monthlyRecord.id = :monthlyRecordId")
+    Optional<MonthlyExpenseDetail> findByIdAndMonthlyRecordId(@Param("id") Long id, @Param("monthlyRecordId") Long monthlyRecordId);
+
+    @Query("SELECT d FROM MonthlyExpenseDetail d WHERE d.annualExpense.id = :annualExpenseId")
+    List<MonthlyExpenseDetail> findByAnnualExpenseId(@Param("annualExpenseId") Long annualExpenseId);
     
     @Query("SELECT SUM(d.amount) FROM MonthlyExpenseDetail d WHERE d.annualExpense.id = :expenseId")
     BigDecimal sumAmountByAnnualExpenseId(@Param("expenseId") Long expenseId);
@@ -21,6 +41,42 @@ public interface MonthlyExpenseDetailRepository extends JpaRepository<MonthlyExp
     @Query("SELECT SUM(d.amount) FROM MonthlyExpenseDetail d WHERE d.annualExpense.id = :expenseId AND d.monthlyRecord.year = :year")
     BigDecimal sumAmountByAnnualExpenseIdAndYear(@Param("expenseId") Long expenseId, @Param("year") Integer year);
     
+    @Query("SELECT d.annualExpense.id AS annualExpenseId, SUM(d.amount) AS spentAmount FROM MonthlyExpenseDetail d " +
+           "WHERE d.monthlyRecord.id IN :recordIds AND d.annualExpense IS NOT NULL GROUP BY d.annualExpense.id")
+    List<AnnualExpenseSpent> sumAmountGroupByAnnualExpenseForRecords(@Param("recordIds") Collection<Long> recordIds);
+    
+    /**
+     * 汇总若干条月度记录中各预算项的已支出金额，用于整条记录删除前回退
+     */
+    default Map<Long, BigDecimal> sumAmountByAnnualExpenseForRecords(Collection<Long> recordIds) {
+        return toSpentMap(sumAmountGroupByAnnualExpenseForRecords(recordIds));
+    }
+    
+    private static Map<Long, BigDecimal> toSpentMap(List<AnnualExpenseSpent> rows) {
+        Map<Long, BigDecimal> result = new HashMap<>();
+        for (AnnualExpenseSpent row : rows) {
+            result.put(row.getAnnualExpenseId(), row.getSpentAmount());
+        }
+        return result;
+    }
+    
+    @Query("SELECT ae.parentCategory AS category, SUM(d.amount) AS amount FROM MonthlyExpenseDetail d " +
+           "LEFT JOIN d.annualExpense ae WHERE d.monthlyRecord.year = :year GROUP BY ae.parentCategory")
+    List<ExpenseCategoryAmount> sumAmountGroupByCategoryForYear(@Param("year") Integer year);
+    
+    /**
+     * 按年份区间流式读取支出明细，category 为关联的年度预算项；需要在事务内消费并关闭
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r.year AS year, r.month AS month, COALESCE(ae.category, '') AS category, d.name AS name, d.amount AS amount, COALESCE(d.detail, '') AS remark " +
+           "FROM MonthlyExpenseDetail d JOIN d.monthlyRecord r LEFT JOIN d.annualExpense ae WHERE r.year BETWEEN :fromYear AND :toYear " +
+           "ORDER BY r.year ASC, r.month ASC, d.sortOrder ASC")
+    Stream<DetailLineView> streamLinesBetween(@Param("fromYear") Integer fromYear, @Param("toYear") Integer toYear);
+    
+    @Modifying
+    @Query("DELETE FROM MonthlyExpenseDetail d WHERE d.monthlyRecord.id IN :recordIds")
+    int deleteByMonthlyRecordIds(@Param("recordIds") Collection<Long> recordIds);
+    
     @Modifying
     @Query("UPDATE MonthlyExpenseDetail d SET d.annualExpense = null WHERE d.annualExpense.id IN :expenseIds")
     void clearAnnualExpenseReferences(@Param("expenseIds") List<Long> expenseIds);
@@ -1,12 +1,42 @@
 package com.finance.repository;
 
 import com.finance.entity.MonthlyIncomeDetail;
+import com.finance.repository.projection.DetailLineView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MonthlyIncomeDetailRepository extends JpaRepository<MonthlyIncomeDetail, Long> {
-    List<MonthlyIncomeDetail> findByMonthlyRecordIdOrderBySortOrder(Long monthlyRecordId);
+    /**
+     * 直接按外键列过滤：派生查询会 left join 父表再按父表主键过滤，用不上子表索引
+     */
+    @Query("SELECT d FROM MonthlyIncomeDetail d WHERE d.monthlyRecord.id = :monthlyRecordId ORDER BY d.sortOrder")
+    List<MonthlyIncomeDetail> findByMonthlyRecordIdOrderBySortOrder(@Param("monthlyRecordId") Long monthlyRecordId);
+
+    @Query("SELECT d FROM MonthlyIncomeDetail d WHERE d.id = :id AND d.monthlyRecord.id = :monthlyRecordId")
+    Optional<MonthlyIncomeDetail> findByIdAndMonthlyRecordId(@Param("id") Long id, @Param("monthlyRecordId") Long monthlyRecordId);
+    
+    /**
+     * 按年份区间流式读取收入明细；需要在事务内消费并关闭
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r.year AS year, r.month AS month, '' AS category, d.name AS name, d.amount AS amount, '' AS remark " +
+           "FROM MonthlyIncomeDetail d JOIN d.monthlyRecord r WHERE r.year BETWEEN :fromYear AND :toYear " +
+           "ORDER BY r.year ASC, r.month ASC, d.sortOrder ASC")
+    Stream<DetailLineView> streamLinesBetween(@Param("fromYear") Integer fromYear, @Param("toYear") Integer toYear);
+    
+    @Modifying
+    @Query("DELETE FROM MonthlyIncomeDetail d WHERE d.monthlyRecord.id IN :recordIds")
+    int deleteByMonthlyRecordIds(@Param("recordIds") Collection<Long> recordIds);
 }
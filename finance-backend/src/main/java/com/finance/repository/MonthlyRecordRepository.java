@@ -1,13 +1,20 @@
 package com.finance.repository;
 
 import com.finance.entity.MonthlyRecord;
+import com.finance.repository.projection.MonthlyTotalsView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MonthlyRecordRepository extends JpaRepository<MonthlyRecord, Long> {
@@ -15,6 +22,50 @@ public interface MonthlyRecordRepository extends JpaRepository<MonthlyRecord, Lo
     List<MonthlyRecord> findByYearOrderByMonthAsc(Integer year);
     boolean existsByYearAndMonth(Integer year, Integer month);
     
+    @Query("SELECT DISTINCT mr.year FROM MonthlyRecord mr ORDER BY mr.year ASC")
+    List<Integer> findDistinctYears();
+    
+    @Query("SELECT mr.year FROM MonthlyRecord mr WHERE mr.id = :id")
+    Optional<Integer> findYearById(@Param("id") Long id);
+    
+    @Query("SELECT mr.id FROM MonthlyRecord mr WHERE mr.year = :year")
+    List<Long> findIdsByYear(@Param("year") Integer year);
+    
+    /**
+     * 只删除记录本身，明细需要先用各明细表的 deleteByMonthlyRecordIds 删除
+     */
+    @Modifying
+    @Query("DELETE FROM MonthlyRecord mr WHERE mr.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT mr.year AS year, mr.month AS month, mr.totalAsset AS totalAsset, mr.totalLiability AS totalLiability, " +
+           "mr.totalIncome AS totalIncome, mr.totalExpense AS totalExpense " +
+           "FROM MonthlyRecord mr WHERE mr.year = :year ORDER BY mr.month ASC")
+    List<MonthlyTotalsView> findTotalsByYear(@Param("year") Integer year);
+    
+    @Query("SELECT mr.year AS year, mr.month AS month, mr.totalAsset AS totalAsset, mr.totalLiability AS totalLiability, " +
+           "mr.totalIncome AS totalIncome, mr.totalExpense AS totalExpense " +
+           "FROM MonthlyRecord mr WHERE mr.year = :year AND mr.month = :month")
+    Optional<MonthlyTotalsView> findTotalsByYearAndMonth(@Param("year") Integer year, @Param("month") Integer month);
+    
+    /**
+     * 某年最后一条记录的汇总列
+     */
+    Optional<MonthlyTotalsView> findFirstByYearOrderByMonthDesc(Integer year);
+    
+    /**
+     * 按 (年, 月) 区间流式读取汇总列，首尾两个月都包含；需要在事务内消费并关闭。
+     * record_year 上的范围条件可以直接走 (record_year, record_month) 唯一约束的索引
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "120"))
+    @Query("SELECT mr.year AS year, mr.month AS month, mr.totalAsset AS totalAsset, mr.totalLiability AS totalLiability, " +
+           "mr.totalIncome AS totalIncome, mr.totalExpense AS totalExpense " +
+           "FROM MonthlyRecord mr WHERE mr.year BETWEEN :fromYear AND :toYear " +
+           "AND (mr.year > :fromYear OR mr.month >= :fromMonth) AND (mr.year < :toYear OR mr.month <= :toMonth) " +
+           "ORDER BY mr.year ASC, mr.month ASC")
+    Stream<MonthlyTotalsView> streamTotalsBetween(@Param("fromYear") Integer fromYear, @Param("fromMonth") Integer fromMonth,
+                                                  @Param("toYear") Integer toYear, @Param("toMonth") Integer toMonth);
+    
     @Query("SELECT mr FROM MonthlyRecord mr WHERE mr.year = :year OR (mr.year = :year - 1 AND mr.month >= :month) ORDER BY mr.year DESC, mr.month DESC")
     List<MonthlyRecord> findRecentRecords(@Param("year") Integer year, @Param("month") Integer month);
     
@@ -0,0 +1,14 @@
+package com.finance.repository;
+
+import com.finance.entity.YearlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface YearlyRollupRepository extends JpaRepository<YearlyRollup, Long> {
+    Optional<YearlyRollup> findByYear(Integer year);
+    List<YearlyRollup> findAllByOrderByYearAsc();
+}
@@ -0,0 +1,11 @@
+package com.finance.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * 按年度预算项汇总的已支出金额
+ */
+public interface AnnualExpenseSpent {
+    Long getAnnualExpenseId();
+    BigDecimal getSpentAmount();
+}
@@ -0,0 +1,13 @@
+package com.finance.repository.projection;
+
+import com.finance.enums.AssetGroup;
+
+import java.math.BigDecimal;
+
+/**
+ * 按资产分组汇总的金额
+ */
+public interface AssetGroupAmount {
+    AssetGroup getAssetGroup();
+    BigDecimal getAmount();
+}
@@ -0,0 +1,15 @@
+package com.finance.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * 一行月度明细及其所属年月，用于跨年份的明细导出。category 为分组/分类，没有时为空字符串
+ */
+public interface DetailLineView {
+    Integer getYear();
+    Integer getMonth();
+    String getCategory();
+    String getName();
+    BigDecimal getAmount();
+    String getRemark();
+}
@@ -0,0 +1,13 @@
+package com.finance.repository.projection;
+
+import com.finance.enums.ExpenseCategory;
+
+import java.math.BigDecimal;
+
+/**
+ * 按预算大类汇总的支出金额，未关联预算的支出 category 为 null
+ */
+public interface ExpenseCategoryAmount {
+    ExpenseCategory getCategory();
+    BigDecimal getAmount();
+}
@@ -0,0 +1,23 @@
+package com.finance.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * 月度记录的汇总列，只查询 monthly_record 上的标量字段，不加载明细集合
+ */
+public interface MonthlyTotalsView {
+    Integer getYear();
+    Integer getMonth();
+    BigDecimal getTotalAsset();
+    BigDecimal getTotalLiability();
+    BigDecimal getTotalIncome();
+    BigDecimal getTotalExpense();
+
+    default BigDecimal getNetWorth() {
+        return getTotalAsset().subtract(getTotalLiability());
+    }
+
+    default BigDecimal getSurplus() {
+        return getTotalIncome().subtract(getTotalExpense());
+    }
+}
@@ -5,6 +5,7 @@ import com.finance.dto.response.AnnualPlanResponse;
 import com.finance.entity.*;
 import com.finance.repository.*;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,20 +17,24 @@ public class AnnualPlanService {
 
     private final AnnualBalancePlanRepository annualPlanRepository;
     private final MonthlyExpenseDetailRepository expenseDetailRepository;
+    private final YearlyRollupService yearlyRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AnnualPlanService(AnnualBalancePlanRepository annualPlanRepository,
-                             MonthlyExpenseDetailRepository expenseDetailRepository) {
+                             MonthlyExpenseDetailRepository expenseDetailRepository,
+                             YearlyRollupService yearlyRollupService,
+                             ApplicationEventPublisher eventPublisher) {
         this.annualPlanRepository = annualPlanRepository;
         this.expenseDetailRepository = expenseDetailRepository;
+        this.yearlyRollupService = yearlyRollupService;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional(readOnly = true)
     public AnnualPlanResponse getByYear(Integer year) {
         AnnualBalancePlan plan = annualPlanRepository.findByYear(year)
                 .orElseThrow(() -> new EntityNotFoundException("未找到" + year + "年的年度规划"));
         
-        // Update spent amounts for expenses
-        updateSpentAmounts(plan);
-        
         return AnnualPlanResponse.fromEntity(plan);
     }
 
@@ -108,26 +113,34 @@ public class AnnualPlanService {
         }
         
         // Calculate surplus
-        calculateSurplus(plan);
+        Surplus surplus = calculateSurplus(plan);
+        plan.setMonthlySurplus(surplus.monthly());
+        plan.setAnnualSurplus(surplus.annual());
         
         plan = annualPlanRepository.save(plan);
+        // 预算项重建后支出关联被清空，分类汇总需要随之刷新
+        yearlyRollupService.refresh(plan.getYear());
+        eventPublisher.publishEvent(DataChangedEvent.annualPlan(plan.getYear()));
         
         return AnnualPlanResponse.fromEntity(plan);
     }
 
+    @Transactional(readOnly = true)
     public AnnualPlanResponse getSummary(Integer year) {
         AnnualBalancePlan plan = annualPlanRepository.findByYear(year)
                 .orElseThrow(() -> new EntityNotFoundException("未找到" + year + "年的年度规划"));
         
-        // Recalculate
-        calculateSurplus(plan);
-        updateSpentAmounts(plan);
-        annualPlanRepository.save(plan);
+        // Surplus is computed into the response; the plan entity is not modified
+        AnnualPlanResponse response = AnnualPlanResponse.fromEntity(plan);
         
-        return AnnualPlanResponse.fromEntity(plan);
+        Surplus surplus = calculateSurplus(plan);
+        response.setMonthlySurplus(surplus.monthly());
+        response.setAnnualSurplus(surplus.annual());
+        
+        return response;
     }
 
-    private void calculateSurplus(AnnualBalancePlan plan) {
+    private Surplus calculateSurplus(AnnualBalancePlan plan) {
         // Monthly fixed income
         BigDecimal monthlyIncome = plan.getAnnualIncomes().stream()
                 .filter(i -> Boolean.TRUE.equals(i.getIsMonthly()))
@@ -142,7 +155,6 @@ public class AnnualPlanService {
         
         // Monthly surplus
         BigDecimal monthlySurplus = monthlyIncome.subtract(monthlyExpense);
-        plan.setMonthlySurplus(monthlySurplus);
         
         // Non-monthly income
         BigDecimal nonMonthlyIncome = plan.getAnnualIncomes().stream()
@@ -160,21 +172,14 @@ public class AnnualPlanService {
         BigDecimal annualSurplus = monthlySurplus.multiply(BigDecimal.valueOf(12))
                 .add(nonMonthlyIncome)
                 .subtract(nonMonthlyExpense);
-        plan.setAnnualSurplus(annualSurplus);
+        return new Surplus(monthlySurplus, annualSurplus);
     }
 
-    private void updateSpentAmounts(AnnualBalancePlan plan) {
-        for (AnnualExpense expense : plan.getAnnualExpenses()) {
-            BigDecimal spent = expenseDetailRepository.sumAmountByAnnualExpenseIdAndYear(
-                    expense.getId(), plan.getYear());
-            expense.setSpentAmount(spent != null ? spent : BigDecimal.ZERO);
-        }
+    @Transactional(readOnly = true)
+    public List<Integer> getAvailableYears() {
+        return annualPlanRepository.findDistinctYears();
     }
 
-    public List<Integer> getAvailableYears() {
-        return annualPlanRepository.findAll().stream()
-                .map(AnnualBalancePlan::getYear)
-                .sorted()
-                .toList();
+    private record Surplus(BigDecimal monthly, BigDecimal annual) {
     }
 }
@@ -0,0 +1,63 @@
+package com.finance.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 导出 Excel 时边写边记录每列的最大显示宽度，写完后一次性设置列宽，代替 autoSizeColumn。
+ * 宽度按字符估算：中日韩等全角字符算 2，其余算 1，不依赖 AWT 字体，也不需要回读已刷到临时文件的行
+ */
+class ColumnWidthTracker {
+
+    private static final int PADDING = 2;
+    private static final int MIN_WIDTH = 6;
+    // Excel 列宽上限是 255 个字符，过长的备注没必要撑满
+    private static final int MAX_WIDTH = 60;
+
+    private final DataFormatter formatter = new DataFormatter();
+    private final Map<Integer, Integer> widths = new HashMap<>();
+
+    /**
+     * 记录一行中各单元格按显示格式（含数字格式）渲染后的宽度，需要在该行写完之后调用
+     */
+    void track(Row row) {
+        for (Cell cell : row) {
+            widths.merge(cell.getColumnIndex(), displayWidth(formatter.formatCellValue(cell)), Math::max);
+        }
+    }
+
+    void applyTo(Sheet sheet) {
+        widths.forEach((column, width) ->
+                sheet.setColumnWidth(column, Math.min(Math.max(width + PADDING, MIN_WIDTH), MAX_WIDTH) * 256));
+    }
+
+    static int displayWidth(String text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            width += isWide(codePoint) ? 2 : 1;
+            i += Character.charCount(codePoint);
+        }
+        return width;
+    }
+
+    private static boolean isWide(int codePoint) {
+        return (codePoint >= 0x1100 && codePoint <= 0x115F)      // Hangul Jamo
+                || (codePoint >= 0x2E80 && codePoint <= 0x303E)  // CJK radicals, symbols and punctuation
+                || (codePoint >= 0x3041 && codePoint <= 0x33FF)  // Kana, CJK compatibility
+                || (codePoint >= 0x3400 && codePoint <= 0x4DBF)  // CJK extension A
+                || (codePoint >= 0x4E00 && codePoint <= 0x9FFF)  // CJK unified ideographs
+                || (codePoint >= 0xA000 && codePoint <= 0xA4CF)  // Yi
+                || (codePoint >= 0xAC00 && codePoint <= 0xD7A3)  // Hangul syllables
+                || (codePoint >= 0xF900 && codePoint <= 0xFAFF)  // CJK compatibility ideographs
+                || (codePoint >= 0xFE30 && codePoint <= 0xFE4F)  // CJK compatibility forms
+                || (codePoint >= 0xFF00 && codePoint <= 0xFF60)  // Fullwidth forms
+                || (codePoint >= 0xFFE0 && codePoint <= 0xFFE6)
+                || (codePoint >= 0x20000 && codePoint <= 0x3FFFD); // CJK extension B and beyond
+    }
+}
@@ -0,0 +1,96 @@
+package com.finance.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 仪表盘查询结果（以及年份选择器的年份列表）的进程内缓存，按 (接口, 年, 月) 缓存，超过容量时淘汰最久未访问的条目。
+ * 数据只在保存或导入时变化，写入事务提交后按 {@link DataChangedEvent} 清掉受影响年份的条目
+ */
+@Component
+public class DashboardCache {
+
+    /**
+     * year 为 null 的条目（跨年区间、全部年份列表）在任何写入后都会被清掉
+     */
+    public record Key(String endpoint, Integer year, Integer month) {
+    }
+
+    static final int EVICTION_ORDER = 0;
+
+    private final int maxEntries;
+    private final Map<Key, Object> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    // 每次失效加一；加载期间发生过失效的结果不放入缓存，避免把提交前读到的旧数据存下来
+    private long generation;
+
+    public DashboardCache(@Value("${finance.dashboard.cache.max-entries:500}") int maxEntries,
+                          MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > DashboardCache.this.maxEntries;
+            }
+        };
+        this.hits = Counter.builder("finance.dashboard.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("finance.dashboard.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("finance.dashboard.cache.evictions").register(meterRegistry);
+        Gauge.builder("finance.dashboard.cache.size", this, DashboardCache::size).register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String endpoint, Integer year, Integer month, Supplier<T> loader) {
+        Key key = new Key(endpoint, year, month);
+        long loadGeneration;
+        synchronized (this) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return (T) cached;
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+        T value = loader.get();
+        synchronized (this) {
+            if (value != null && generation == loadGeneration) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 必须先于 {@link DataVersionService#onDataChanged} 执行：否则新 ETag 可能配上尚未清掉的旧结果，被客户端长期缓存
+     */
+    @Order(EVICTION_ORDER)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onDataChanged(DataChangedEvent event) {
+        generation++;
+        int before = entries.size();
+        if (event.affectsAllYears()) {
+            entries.clear();
+        } else {
+            entries.keySet().removeIf(key -> key.year() == null || event.years().contains(key.year()));
+        }
+        evictions.increment(before - entries.size());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
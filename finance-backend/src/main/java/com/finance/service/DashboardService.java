@@ -4,38 +4,47 @@ import com.finance.entity.*;
 import com.finance.enums.AssetGroup;
 import com.finance.enums.ExpenseCategory;
 import com.finance.repository.*;
+import com.finance.repository.projection.AssetGroupAmount;
+import com.finance.repository.projection.MonthlyTotalsView;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Transactional(readOnly = true)
 public class DashboardService {
 
     private final MonthlyRecordRepository monthlyRecordRepository;
     private final MonthlyAssetDetailRepository assetDetailRepository;
-    private final MonthlyExpenseDetailRepository expenseDetailRepository;
     private final AnnualBalancePlanRepository annualPlanRepository;
+    private final AssetTargetRepository assetTargetRepository;
+    private final YearlyRollupRepository yearlyRollupRepository;
 
     public DashboardService(MonthlyRecordRepository monthlyRecordRepository,
                             MonthlyAssetDetailRepository assetDetailRepository,
-                            MonthlyExpenseDetailRepository expenseDetailRepository,
-                            AnnualBalancePlanRepository annualPlanRepository) {
+                            AnnualBalancePlanRepository annualPlanRepository,
+                            AssetTargetRepository assetTargetRepository,
+                            YearlyRollupRepository yearlyRollupRepository) {
         this.monthlyRecordRepository = monthlyRecordRepository;
         this.assetDetailRepository = assetDetailRepository;
-        this.expenseDetailRepository = expenseDetailRepository;
         this.annualPlanRepository = annualPlanRepository;
+        this.assetTargetRepository = assetTargetRepository;
+        this.yearlyRollupRepository = yearlyRollupRepository;
     }
 
     public Map<String, Object> getOverview(Integer year, Integer month) {
         Map<String, Object> result = new HashMap<>();
         
-        Optional<MonthlyRecord> current = monthlyRecordRepository.findByYearAndMonth(year, month);
+        Optional<MonthlyTotalsView> current = monthlyRecordRepository.findTotalsByYearAndMonth(year, month);
         
         if (current.isPresent()) {
-            MonthlyRecord record = current.get();
+            MonthlyTotalsView record = current.get();
             result.put("totalAsset", record.getTotalAsset());
             result.put("totalLiability", record.getTotalLiability());
             result.put("netWorth", record.getNetWorth());
@@ -55,7 +64,7 @@ public class DashboardService {
     }
 
     public List<Map<String, Object>> getAssetTrend(Integer year) {
-        List<MonthlyRecord> records = monthlyRecordRepository.findByYearOrderByMonthAsc(year);
+        List<MonthlyTotalsView> records = monthlyRecordRepository.findTotalsByYear(year);
         
         return records.stream().map(record -> {
             Map<String, Object> point = new HashMap<>();
@@ -68,8 +77,31 @@ public class DashboardService {
         }).collect(Collectors.toList());
     }
 
+    /**
+     * 跨年资产趋势，from/to 均包含在内，一次范围查询取出全部月份
+     */
+    public List<Map<String, Object>> getAssetTrend(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("起始月份不能晚于结束月份: " + from + " > " + to);
+        }
+        
+        try (Stream<MonthlyTotalsView> records = monthlyRecordRepository.streamTotalsBetween(
+                from.getYear(), from.getMonthValue(), to.getYear(), to.getMonthValue())) {
+            return records.map(record -> {
+                Map<String, Object> point = new HashMap<>();
+                point.put("period", String.format("%d-%02d", record.getYear(), record.getMonth()));
+                point.put("year", record.getYear());
+                point.put("month", record.getMonth());
+                point.put("asset", record.getTotalAsset());
+                point.put("liability", record.getTotalLiability());
+                point.put("netWorth", record.getNetWorth());
+                return point;
+            }).collect(Collectors.toList());
+        }
+    }
+
     public List<Map<String, Object>> getIncomeExpenseTrend(Integer year) {
-        List<MonthlyRecord> records = monthlyRecordRepository.findByYearOrderByMonthAsc(year);
+        List<MonthlyTotalsView> records = monthlyRecordRepository.findTotalsByYear(year);
         
         return records.stream().map(record -> {
             Map<String, Object> point = new HashMap<>();
@@ -85,29 +117,21 @@ public class DashboardService {
     public List<Map<String, Object>> getAssetDistribution(Integer year, Integer month) {
         List<Map<String, Object>> result = new ArrayList<>();
         
-        Optional<MonthlyRecord> recordOpt = monthlyRecordRepository.findByYearAndMonth(year, month);
-        Optional<AnnualBalancePlan> planOpt = annualPlanRepository.findByYear(year);
+        // 两次分组查询：当月各分组资产合计、年度各分组目标合计
+        Map<AssetGroup, BigDecimal> currentByGroup = toGroupMap(
+                assetDetailRepository.sumAmountGroupByAssetGroup(year, month));
+        Map<AssetGroup, BigDecimal> targetByGroup = toGroupMap(
+                assetTargetRepository.sumTargetAmountGroupByAssetGroup(year));
         
         for (AssetGroup group : AssetGroup.values()) {
             Map<String, Object> item = new HashMap<>();
             item.put("group", group.name());
             item.put("label", group.getLabel());
             
-            BigDecimal currentAmount = BigDecimal.ZERO;
-            if (recordOpt.isPresent()) {
-                BigDecimal sum = assetDetailRepository.sumAmountByRecordIdAndGroup(
-                        recordOpt.get().getId(), group);
-                if (sum != null) currentAmount = sum;
-            }
+            BigDecimal currentAmount = currentByGroup.getOrDefault(group, BigDecimal.ZERO);
             item.put("currentAmount", currentAmount);
             
-            BigDecimal targetAmount = BigDecimal.ZERO;
-            if (planOpt.isPresent()) {
-                targetAmount = planOpt.get().getAssetTargets().stream()
-                        .filter(t -> t.getAssetGroup() == group)
-                        .map(AssetTarget::getTargetAmount)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-            }
+            BigDecimal targetAmount = targetByGroup.getOrDefault(group, BigDecimal.ZERO);
             item.put("targetAmount", targetAmount);
             
             double percentage = 0;
@@ -123,6 +147,16 @@ public class DashboardService {
         return result;
     }
 
+    private Map<AssetGroup, BigDecimal> toGroupMap(List<AssetGroupAmount> rows) {
+        Map<AssetGroup, BigDecimal> map = new EnumMap<>(AssetGroup.class);
+        for (AssetGroupAmount row : rows) {
+            if (row.getAssetGroup() != null && row.getAmount() != null) {
+                map.put(row.getAssetGroup(), row.getAmount());
+            }
+        }
+        return map;
+    }
+
     public Map<String, Object> getAnnualProgress(Integer year) {
         Map<String, Object> result = new HashMap<>();
         
@@ -137,6 +171,12 @@ public class DashboardService {
         result.put("monthlySurplus", plan.getMonthlySurplus());
         result.put("annualSurplus", plan.getAnnualSurplus());
         
+        // 实际收支取自年度汇总
+        Optional<YearlyRollup> rollup = yearlyRollupRepository.findByYear(year);
+        result.put("actualIncome", rollup.map(YearlyRollup::getTotalIncome).orElse(BigDecimal.ZERO));
+        result.put("actualExpense", rollup.map(YearlyRollup::getTotalExpense).orElse(BigDecimal.ZERO));
+        result.put("actualSurplus", rollup.map(YearlyRollup::getSurplus).orElse(BigDecimal.ZERO));
+        
         // Budget execution summary - 过滤掉日常开销类别
         List<Map<String, Object>> budgetProgress = plan.getAnnualExpenses().stream()
             .filter(expense -> expense.getParentCategory() != ExpenseCategory.DAILY)
@@ -145,10 +185,7 @@ public class DashboardService {
             item.put("category", expense.getCategory());
             item.put("budgetAmount", expense.getBudgetAmount());
             
-            // 动态计算已支出金额
-            BigDecimal spentAmount = expenseDetailRepository.sumAmountByAnnualExpenseIdAndYear(
-                    expense.getId(), year);
-            if (spentAmount == null) spentAmount = BigDecimal.ZERO;
+            BigDecimal spentAmount = expense.getSpentAmount() != null ? expense.getSpentAmount() : BigDecimal.ZERO;
             item.put("spentAmount", spentAmount);
             
             // 重新计算剩余金额和执行率
@@ -171,6 +208,23 @@ public class DashboardService {
         return result;
     }
 
+    public Map<String, Object> getYearlySummary(Integer year) {
+        return yearlyRollupRepository.findByYear(year)
+                .map(this::toYearlySummary)
+                .orElseGet(() -> {
+                    Map<String, Object> result = new HashMap<>();
+                    result.put("year", year);
+                    result.put("hasData", false);
+                    return result;
+                });
+    }
+
+    public List<Map<String, Object>> getYearlySummaries() {
+        return yearlyRollupRepository.findAllByOrderByYearAsc().stream()
+                .map(this::toYearlySummary)
+                .collect(Collectors.toList());
+    }
+
     public Map<String, Object> getAnnualTargetTrend(Integer year) {
         Map<String, Object> result = new HashMap<>();
         
@@ -195,6 +249,12 @@ public class DashboardService {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         result.put("liabilityTargetTotal", liabilityTargetTotal);
         
+        // 一次查询取出全年记录，按月份填入 1-12 月
+        MonthlyTotalsView[] recordsByMonth = new MonthlyTotalsView[13];
+        for (MonthlyTotalsView record : monthlyRecordRepository.findTotalsByYear(year)) {
+            recordsByMonth[record.getMonth()] = record;
+        }
+        
         // 构建月度数据（1-12月）
         List<Map<String, Object>> monthlyData = new ArrayList<>();
         for (int month = 1; month <= 12; month++) {
@@ -203,9 +263,8 @@ public class DashboardService {
             monthPoint.put("assetTarget", assetTargetTotal);
             monthPoint.put("liabilityTarget", liabilityTargetTotal);
             
-            Optional<MonthlyRecord> recordOpt = monthlyRecordRepository.findByYearAndMonth(year, month);
-            if (recordOpt.isPresent()) {
-                MonthlyRecord record = recordOpt.get();
+            MonthlyTotalsView record = recordsByMonth[month];
+            if (record != null) {
                 monthPoint.put("assetActual", record.getTotalAsset());
                 monthPoint.put("liabilityActual", record.getTotalLiability());
             } else {
@@ -248,10 +307,8 @@ public class DashboardService {
                     : expense.getBudgetAmount();
             totalBudget = totalBudget.add(budgetAmount);
             
-            // 动态计算已支出金额（从月度记录中汇总）
-            BigDecimal spentAmount = expenseDetailRepository.sumAmountByAnnualExpenseIdAndYear(
-                    expense.getId(), year);
-            if (spentAmount == null) spentAmount = BigDecimal.ZERO;
+            // 已支出金额（月度记录写入时增量维护）
+            BigDecimal spentAmount = expense.getSpentAmount() != null ? expense.getSpentAmount() : BigDecimal.ZERO;
             
             totalSpent = totalSpent.add(spentAmount);
             
@@ -278,4 +335,29 @@ public class DashboardService {
         
         return result;
     }
+
+    private Map<String, Object> toYearlySummary(YearlyRollup rollup) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("year", rollup.getYear());
+        result.put("hasData", true);
+        result.put("monthCount", rollup.getMonthCount());
+        result.put("totalIncome", rollup.getTotalIncome());
+        result.put("totalExpense", rollup.getTotalExpense());
+        result.put("surplus", rollup.getSurplus());
+        result.put("startNetWorth", rollup.getStartNetWorth());
+        result.put("endNetWorth", rollup.getEndNetWorth());
+        result.put("netWorthDelta", rollup.getNetWorthDelta());
+        
+        List<Map<String, Object>> categories = new ArrayList<>();
+        for (ExpenseCategory category : ExpenseCategory.values()) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("category", category);
+            item.put("label", category.getLabel());
+            item.put("amount", rollup.getCategorySpend().getOrDefault(category, BigDecimal.ZERO));
+            categories.add(item);
+        }
+        result.put("categorySpend", categories);
+        
+        return result;
+    }
 }
@@ -0,0 +1,28 @@
+package com.finance.service;
+
+import java.util.Set;
+
+/**
+ * 月度记录或年度规划写入后发布，years 为受影响的年份；为 null 时表示全部年份
+ */
+public record DataChangedEvent(Set<Integer> years) {
+
+    /**
+     * 月度记录的变化还会影响下一年 1 月与上年 12 月的环比
+     */
+    public static DataChangedEvent monthlyRecords(Integer year) {
+        return new DataChangedEvent(Set.of(year, year + 1));
+    }
+
+    public static DataChangedEvent annualPlan(Integer year) {
+        return new DataChangedEvent(Set.of(year));
+    }
+
+    public static DataChangedEvent all() {
+        return new DataChangedEvent(null);
+    }
+
+    public boolean affectsAllYears() {
+        return years == null;
+    }
+}
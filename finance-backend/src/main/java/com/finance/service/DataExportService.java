@@ -1,154 +1,320 @@
 package com.finance.service;
 
 import com.finance.entity.*;
+import com.finance.enums.AssetGroup;
 import com.finance.repository.*;
+import com.finance.repository.projection.DetailLineView;
+import com.finance.repository.projection.MonthlyTotalsView;
 import com.opencsv.CSVWriter;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 @Service
+@Transactional(readOnly = true)
 public class DataExportService {
 
+    private static final int ROW_ACCESS_WINDOW = 100;
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+
     private final AnnualBalancePlanRepository annualPlanRepository;
     private final MonthlyRecordRepository monthlyRecordRepository;
+    private final MonthlyAssetDetailRepository assetDetailRepository;
+    private final MonthlyLiabilityDetailRepository liabilityDetailRepository;
+    private final MonthlyIncomeDetailRepository incomeDetailRepository;
+    private final MonthlyExpenseDetailRepository expenseDetailRepository;
 
     public DataExportService(AnnualBalancePlanRepository annualPlanRepository,
-                            MonthlyRecordRepository monthlyRecordRepository) {
+                            MonthlyRecordRepository monthlyRecordRepository,
+                            MonthlyAssetDetailRepository assetDetailRepository,
+                            MonthlyLiabilityDetailRepository liabilityDetailRepository,
+                            MonthlyIncomeDetailRepository incomeDetailRepository,
+                            MonthlyExpenseDetailRepository expenseDetailRepository) {
         this.annualPlanRepository = annualPlanRepository;
         this.monthlyRecordRepository = monthlyRecordRepository;
+        this.assetDetailRepository = assetDetailRepository;
+        this.liabilityDetailRepository = liabilityDetailRepository;
+        this.incomeDetailRepository = incomeDetailRepository;
+        this.expenseDetailRepository = expenseDetailRepository;
     }
 
-    public byte[] exportAnnualPlanToExcel(Integer year) {
-        AnnualBalancePlan plan = annualPlanRepository.findByYear(year)
-                .orElseThrow(() -> new IllegalArgumentException("未找到" + year + "年的年度规划"));
+    /**
+     * 年度规划不存在时抛出异常；流式导出开始写响应之前先调用，保证能返回 400 而不是半个文件
+     */
+    public void checkAnnualPlanExists(Integer year) {
+        if (!annualPlanRepository.existsByYear(year)) {
+            throw new IllegalArgumentException("未找到" + year + "年的年度规划");
+        }
+    }
 
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    public SXSSFWorkbook buildAnnualPlanWorkbook(Integer year) {
+        return buildAnnualPlanWorkbook(year, ExportProgress.NONE);
+    }
 
-            CellStyle headerStyle = createHeaderStyle(workbook);
-            CellStyle moneyStyle = createMoneyStyle(workbook);
+    public SXSSFWorkbook buildAnnualPlanWorkbook(Integer year, ExportProgress progress) {
+        AnnualBalancePlan plan = annualPlanRepository.findByYear(year)
+                .orElseThrow(() -> new IllegalArgumentException("未找到" + year + "年的年度规划"));
 
+        return buildExcel((workbook, headerStyle, moneyStyle) -> {
             // Sheet 1: 年度收入
             Sheet incomeSheet = workbook.createSheet("年度收入");
             createIncomeSheet(incomeSheet, plan.getAnnualIncomes(), headerStyle, moneyStyle);
+            progress.update(1, 4);
 
             // Sheet 2: 资产目标
             Sheet assetSheet = workbook.createSheet("资产目标");
             createAssetTargetSheet(assetSheet, plan.getAssetTargets(), headerStyle, moneyStyle);
+            progress.update(2, 4);
 
             // Sheet 3: 负债目标
             Sheet liabilitySheet = workbook.createSheet("负债目标");
             createLiabilityTargetSheet(liabilitySheet, plan.getLiabilityTargets(), headerStyle, moneyStyle);
+            progress.update(3, 4);
 
             // Sheet 4: 年度预算
             Sheet expenseSheet = workbook.createSheet("年度预算");
             createExpenseSheet(expenseSheet, plan.getAnnualExpenses(), headerStyle, moneyStyle);
+            progress.update(4, 4);
+        });
+    }
 
-            workbook.write(out);
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("导出Excel失败: " + e.getMessage(), e);
-        }
+    public SXSSFWorkbook buildMonthlyRecordsWorkbook(Integer year) {
+        return buildMonthlyRecordsWorkbook(year, ExportProgress.NONE);
     }
 
-    public byte[] exportMonthlyRecordsToExcel(Integer year) {
+    public SXSSFWorkbook buildMonthlyRecordsWorkbook(Integer year, ExportProgress progress) {
         List<MonthlyRecord> records = monthlyRecordRepository.findByYearOrderByMonthAsc(year);
+        // 汇总列就在已加载的记录上，不再单独查一次 findTotalsByYear
+        List<MonthlyTotalsView> totals = records.stream().map(DataExportService::totalsOf).toList();
+        int sheetCount = records.size() + 1;
 
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-
-            CellStyle headerStyle = createHeaderStyle(workbook);
-            CellStyle moneyStyle = createMoneyStyle(workbook);
-
+        return buildExcel((workbook, headerStyle, moneyStyle) -> {
             // Summary sheet
             Sheet summarySheet = workbook.createSheet("月度汇总");
-            createMonthlySummarySheet(summarySheet, records, headerStyle, moneyStyle);
+            createMonthlySummarySheet(summarySheet, totals, headerStyle, moneyStyle);
+            progress.update(1, sheetCount);
 
             // Create sheet for each month
+            int done = 1;
             for (MonthlyRecord record : records) {
                 Sheet monthSheet = workbook.createSheet(record.getMonth() + "月明细");
                 createMonthDetailSheet(monthSheet, record, headerStyle, moneyStyle);
+                progress.update(++done, sheetCount);
             }
+        });
+    }
 
-            workbook.write(out);
-            return out.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("导出Excel失败: " + e.getMessage(), e);
-        }
+    private static MonthlyTotalsView totalsOf(MonthlyRecord record) {
+        return new MonthlyTotalsView() {
+            @Override
+            public Integer getYear() { return record.getYear(); }
+
+            @Override
+            public Integer getMonth() { return record.getMonth(); }
+
+            @Override
+            public BigDecimal getTotalAsset() { return record.getTotalAsset(); }
+
+            @Override
+            public BigDecimal getTotalLiability() { return record.getTotalLiability(); }
+
+            @Override
+            public BigDecimal getTotalIncome() { return record.getTotalIncome(); }
+
+            @Override
+            public BigDecimal getTotalExpense() { return record.getTotalExpense(); }
+        };
     }
 
-    public String exportMonthlyRecordsToCsv(Integer year) {
-        List<MonthlyRecord> records = monthlyRecordRepository.findByYearOrderByMonthAsc(year);
+    public void exportMonthlyRecordsToCsv(Integer year, OutputStream out) {
+        exportMonthlyRecordsToCsv(year, out, ExportProgress.NONE);
+    }
 
-        StringWriter stringWriter = new StringWriter();
-        try (CSVWriter writer = new CSVWriter(stringWriter)) {
+    public void exportMonthlyRecordsToCsv(Integer year, OutputStream out, ExportProgress progress) {
+        writeCsv(out, writer -> {
             // Header
             writer.writeNext(new String[]{"月份", "总资产", "总负债", "净资产", "总收入", "总支出", "结余"});
 
             // Data
-            for (MonthlyRecord record : records) {
-                BigDecimal netWorth = record.getTotalAsset().subtract(record.getTotalLiability());
-                BigDecimal surplus = record.getTotalIncome().subtract(record.getTotalExpense());
-                writer.writeNext(new String[]{
-                        record.getMonth() + "月",
-                        format(record.getTotalAsset()),
-                        format(record.getTotalLiability()),
-                        format(netWorth),
-                        format(record.getTotalIncome()),
-                        format(record.getTotalExpense()),
-                        format(surplus)
+            try (Stream<MonthlyTotalsView> records = monthlyRecordRepository.streamTotalsBetween(year, 1, year, 12)) {
+                records.forEach(record -> {
+                    writer.writeNext(new String[]{
+                            record.getMonth() + "月",
+                            format(record.getTotalAsset()),
+                            format(record.getTotalLiability()),
+                            format(record.getNetWorth()),
+                            format(record.getTotalIncome()),
+                            format(record.getTotalExpense()),
+                            format(record.getSurplus())
+                    });
+                    // 按月份升序输出，月份即已完成的进度
+                    progress.update(record.getMonth(), 12);
                 });
             }
+            progress.update(12, 12);
+        });
+    }
 
-            return stringWriter.toString();
+    /**
+     * 导出 [fromYear, toYear] 内全部月度明细行，按资产、负债、收入、支出依次输出，每类内按年月排序。
+     * 每类明细逐年用流式查询边读边写，不在内存里汇总；每写完一年报告一次进度，跨几十年的导出也能看到进度、及时取消
+     */
+    public void exportDetailLinesToCsv(Integer fromYear, Integer toYear, OutputStream out) {
+        exportDetailLinesToCsv(fromYear, toYear, out, ExportProgress.NONE);
+    }
+
+    public void exportDetailLinesToCsv(Integer fromYear, Integer toYear, OutputStream out, ExportProgress progress) {
+        writeCsv(out, writer -> {
+            writer.writeNext(new String[]{"年份", "月份", "类型", "分组/分类", "名称", "金额(万)", "备注"});
+
+            writeDetailSection(0, fromYear, toYear, progress, year -> assetDetailRepository.streamLinesBetween(year, year),
+                    line -> writeDetailLine(writer, "资产", AssetGroup.valueOf(line.getCategory()).getLabel(), line));
+            writeDetailSection(1, fromYear, toYear, progress, year -> liabilityDetailRepository.streamLinesBetween(year, year),
+                    line -> writeDetailLine(writer, "负债", line.getCategory(), line));
+            writeDetailSection(2, fromYear, toYear, progress, year -> incomeDetailRepository.streamLinesBetween(year, year),
+                    line -> writeDetailLine(writer, "收入", line.getCategory(), line));
+            writeDetailSection(3, fromYear, toYear, progress, year -> expenseDetailRepository.streamLinesBetween(year, year),
+                    line -> writeDetailLine(writer, "支出", line.getCategory(), line));
+        });
+    }
+
+    /**
+     * section 为第几类明细（0-3），总进度按 4 类 x 年数计
+     */
+    private void writeDetailSection(int section, Integer fromYear, Integer toYear, ExportProgress progress,
+                                    IntFunction<Stream<DetailLineView>> linesOfYear, Consumer<DetailLineView> writeLine) {
+        int years = toYear - fromYear + 1;
+        for (int year = fromYear; year <= toYear; year++) {
+            try (Stream<DetailLineView> lines = linesOfYear.apply(year)) {
+                lines.forEach(writeLine);
+            }
+            progress.update(section * years + year - fromYear + 1, 4 * years);
+        }
+    }
+
+    private void writeDetailLine(CSVWriter writer, String type, String category, DetailLineView line) {
+        writer.writeNext(new String[]{
+                String.valueOf(line.getYear()),
+                line.getMonth() + "月",
+                type,
+                category,
+                line.getName(),
+                format(line.getAmount()),
+                line.getRemark()
+        });
+    }
+
+    /**
+     * CSV 直接经带缓冲的 UTF-8 编码器写进 out；只 flush 不关闭，out 由调用方（响应流）负责关闭
+     */
+    private void writeCsv(OutputStream out, Consumer<CSVWriter> content) {
+        try {
+            CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), CSV_BUFFER_SIZE));
+            content.accept(writer);
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("写出CSV时连接已断开");
+            }
         } catch (Exception e) {
             throw new RuntimeException("导出CSV失败: " + e.getMessage(), e);
         }
     }
 
-    public byte[] exportFullDataToExcel(Integer year) {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    public SXSSFWorkbook buildFullDataWorkbook(Integer year) {
+        return buildFullDataWorkbook(year, ExportProgress.NONE);
+    }
 
-            CellStyle headerStyle = createHeaderStyle(workbook);
-            CellStyle moneyStyle = createMoneyStyle(workbook);
+    public SXSSFWorkbook buildFullDataWorkbook(Integer year, ExportProgress progress) {
+        Optional<AnnualBalancePlan> annualPlan = annualPlanRepository.findByYear(year);
+        int sheetCount = annualPlan.isPresent() ? 5 : 1;
 
+        return buildExcel((workbook, headerStyle, moneyStyle) -> {
             // Annual Plan sheets
-            annualPlanRepository.findByYear(year).ifPresent(plan -> {
+            annualPlan.ifPresent(plan -> {
                 Sheet incomeSheet = workbook.createSheet("年度收入");
                 createIncomeSheet(incomeSheet, plan.getAnnualIncomes(), headerStyle, moneyStyle);
+                progress.update(1, sheetCount);
 
                 Sheet assetSheet = workbook.createSheet("资产目标");
                 createAssetTargetSheet(assetSheet, plan.getAssetTargets(), headerStyle, moneyStyle);
+                progress.update(2, sheetCount);
 
                 Sheet liabilitySheet = workbook.createSheet("负债目标");
                 createLiabilityTargetSheet(liabilitySheet, plan.getLiabilityTargets(), headerStyle, moneyStyle);
+                progress.update(3, sheetCount);
 
                 Sheet expenseSheet = workbook.createSheet("年度预算");
                 createExpenseSheet(expenseSheet, plan.getAnnualExpenses(), headerStyle, moneyStyle);
+                progress.update(4, sheetCount);
             });
 
             // Monthly records
-            List<MonthlyRecord> records = monthlyRecordRepository.findByYearOrderByMonthAsc(year);
+            List<MonthlyTotalsView> records = monthlyRecordRepository.findTotalsByYear(year);
             Sheet summarySheet = workbook.createSheet("月度汇总");
             createMonthlySummarySheet(summarySheet, records, headerStyle, moneyStyle);
+            progress.update(sheetCount, sheetCount);
+        });
+    }
+
+    @FunctionalInterface
+    private interface WorkbookContent {
+        void write(SXSSFWorkbook workbook, CellStyle headerStyle, CellStyle moneyStyle);
+    }
 
+    /**
+     * 把 build*Workbook 生成的工作簿写进 out 并删除临时文件。不在事务里执行，
+     * 客户端下载再慢也不会一直占着数据库连接
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeExcel(SXSSFWorkbook workbook, OutputStream out) {
+        try {
             workbook.write(out);
-            return out.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("导出Excel失败: " + e.getMessage(), e);
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    /**
+     * 用 SXSSF 流式生成：内存里只保留最近 ROW_ACCESS_WINDOW 行，更早的行压缩后落到临时文件，
+     * 不在堆上拼出整个文件。生成失败时清掉临时文件，成功时由 {@link #writeExcel} 清理
+     */
+    private SXSSFWorkbook buildExcel(WorkbookContent content) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        boolean built = false;
+        try {
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            CellStyle moneyStyle = createMoneyStyle(workbook);
+            content.write(workbook, headerStyle, moneyStyle);
+            built = true;
+            return workbook;
+        } catch (Exception e) {
+            throw new RuntimeException("导出Excel失败: " + e.getMessage(), e);
+        } finally {
+            if (!built) {
+                workbook.dispose();
+            }
         }
     }
 
     private void createIncomeSheet(Sheet sheet, List<AnnualIncome> incomes, CellStyle headerStyle, CellStyle moneyStyle) {
+        ColumnWidthTracker widths = new ColumnWidthTracker();
         Row header = sheet.createRow(0);
         String[] headers = {"类型", "名称", "金额(万)", "是否月度", "备注"};
         for (int i = 0; i < headers.length; i++) {
@@ -156,6 +322,7 @@ public class DataExportService {
             cell.setCellValue(headers[i]);
             cell.setCellStyle(headerStyle);
         }
+        widths.track(header);
 
         int rowNum = 1;
         for (AnnualIncome income : incomes) {
@@ -167,14 +334,14 @@ public class DataExportService {
             amountCell.setCellStyle(moneyStyle);
             row.createCell(3).setCellValue(Boolean.TRUE.equals(income.getIsMonthly()) ? "是" : "否");
             row.createCell(4).setCellValue(income.getRemark() != null ? income.getRemark() : "");
+            widths.track(row);
         }
 
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+        widths.applyTo(sheet);
     }
 
     private void createAssetTargetSheet(Sheet sheet, List<AssetTarget> assets, CellStyle headerStyle, CellStyle moneyStyle) {
+        ColumnWidthTracker widths = new ColumnWidthTracker();
         Row header = sheet.createRow(0);
         String[] headers = {"分组", "名称", "目标金额(万)", "预期收益率(%)"};
         for (int i = 0; i < headers.length; i++) {
@@ -182,6 +349,7 @@ public class DataExportService {
             cell.setCellValue(headers[i]);
             cell.setCellStyle(headerStyle);
         }
+        widths.track(header);
 
         int rowNum = 1;
         for (AssetTarget asset : assets) {
@@ -194,14 +362,14 @@ public class DataExportService {
             if (asset.getExpectedReturnRate() != null) {
                 row.createCell(3).setCellValue(asset.getExpectedReturnRate().doubleValue());
             }
+            widths.track(row);
         }
 
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+        widths.applyTo(sheet);
     }
 
     private void createLiabilityTargetSheet(Sheet sheet, List<LiabilityTarget> liabilities, CellStyle headerStyle, CellStyle moneyStyle) {
+        ColumnWidthTracker widths = new ColumnWidthTracker();
         Row header = sheet.createRow(0);
         String[] headers = {"分组", "名称", "目标余额(万)", "利率(%)"};
         for (int i = 0; i < headers.length; i++) {
@@ -209,6 +377,7 @@ public class DataExportService {
             cell.setCellValue(headers[i]);
             cell.setCellStyle(headerStyle);
         }
+        widths.track(header);
 
         int rowNum = 1;
         for (LiabilityTarget liability : liabilities) {
@@ -221,14 +390,14 @@ public class DataExportService {
             if (liability.getInterestRate() != null) {
                 row.createCell(3).setCellValue(liability.getInterestRate().doubleValue());
             }
+            widths.track(row);
         }
 
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+        widths.applyTo(sheet);
     }
 
     private void createExpenseSheet(Sheet sheet, List<AnnualExpense> expenses, CellStyle headerStyle, CellStyle moneyStyle) {
+        ColumnWidthTracker widths = new ColumnWidthTracker();
         Row header = sheet.createRow(0);
         String[] headers = {"分组", "名称", "金额(万)", "月度/年度", "已消耗(万)"};
         for (int i = 0; i < headers.length; i++) {
@@ -236,6 +405,7 @@ public class DataExportService {
             cell.setCellValue(headers[i]);
             cell.setCellStyle(headerStyle);
         }
+        widths.track(header);
 
         int rowNum = 1;
         for (AnnualExpense expense : expenses) {
@@ -249,14 +419,14 @@ public class DataExportService {
             Cell spentCell = row.createCell(4);
             spentCell.setCellValue(expense.getSpentAmount() != null ? expense.getSpentAmount().doubleValue() : 0);
             spentCell.setCellStyle(moneyStyle);
+            widths.track(row);
         }
 
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+        widths.applyTo(sheet);
     }
 
-    private void createMonthlySummarySheet(Sheet sheet, List<MonthlyRecord> records, CellStyle headerStyle, CellStyle moneyStyle) {
+    private void createMonthlySummarySheet(Sheet sheet, List<MonthlyTotalsView> records, CellStyle headerStyle, CellStyle moneyStyle) {
+        ColumnWidthTracker widths = new ColumnWidthTracker();
         Row header = sheet.createRow(0);
         String[] headers = {"月份", "总资产", "总负债", "净资产", "总收入", "总支出", "结余"};
         for (int i = 0; i < headers.length; i++) {
@@ -264,9 +434,10 @@ public class DataExportService {
             cell.setCellValue(headers[i]);
             cell.setCellStyle(headerStyle);
         }
+        widths.track(header);
 
         int rowNum = 1;
-        for (MonthlyRecord record : records) {
+        for (MonthlyTotalsView record : records) {
             Row row = sheet.createRow(rowNum++);
             row.createCell(0).setCellValue(record.getMonth() + "月");
 
@@ -278,9 +449,8 @@ public class DataExportService {
             liabilityCell.setCellValue(record.getTotalLiability().doubleValue());
             liabilityCell.setCellStyle(moneyStyle);
 
-            BigDecimal netWorth = record.getTotalAsset().subtract(record.getTotalLiability());
             Cell netWorthCell = row.createCell(3);
-            netWorthCell.setCellValue(netWorth.doubleValue());
+            netWorthCell.setCellValue(record.getNetWorth().doubleValue());
             netWorthCell.setCellStyle(moneyStyle);
 
             Cell incomeCell = row.createCell(4);
@@ -291,29 +461,30 @@ public class DataExportService {
             expenseCell.setCellValue(record.getTotalExpense().doubleValue());
             expenseCell.setCellStyle(moneyStyle);
 
-            BigDecimal surplus = record.getTotalIncome().subtract(record.getTotalExpense());
             Cell surplusCell = row.createCell(6);
-            surplusCell.setCellValue(surplus.doubleValue());
+            surplusCell.setCellValue(record.getSurplus().doubleValue());
             surplusCell.setCellStyle(moneyStyle);
+            widths.track(row);
         }
 
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+        widths.applyTo(sheet);
     }
 
     private void createMonthDetailSheet(Sheet sheet, MonthlyRecord record, CellStyle headerStyle, CellStyle moneyStyle) {
+        ColumnWidthTracker widths = new ColumnWidthTracker();
         int rowNum = 0;
 
         // Assets section
         Row assetHeader = sheet.createRow(rowNum++);
         assetHeader.createCell(0).setCellValue("资产明细");
         assetHeader.getCell(0).setCellStyle(headerStyle);
+        widths.track(assetHeader);
 
         Row assetColHeader = sheet.createRow(rowNum++);
         assetColHeader.createCell(0).setCellValue("分组");
         assetColHeader.createCell(1).setCellValue("名称");
         assetColHeader.createCell(2).setCellValue("金额(万)");
+        widths.track(assetColHeader);
 
         for (MonthlyAssetDetail detail : record.getAssetDetails()) {
             Row row = sheet.createRow(rowNum++);
@@ -322,6 +493,7 @@ public class DataExportService {
             Cell cell = row.createCell(2);
             cell.setCellValue(detail.getAmount().doubleValue());
             cell.setCellStyle(moneyStyle);
+            widths.track(row);
         }
 
         rowNum++; // Empty row
@@ -330,10 +502,12 @@ public class DataExportService {
         Row liabilityHeader = sheet.createRow(rowNum++);
         liabilityHeader.createCell(0).setCellValue("负债明细");
         liabilityHeader.getCell(0).setCellStyle(headerStyle);
+        widths.track(liabilityHeader);
 
         Row liabilityColHeader = sheet.createRow(rowNum++);
         liabilityColHeader.createCell(0).setCellValue("名称");
         liabilityColHeader.createCell(1).setCellValue("金额(万)");
+        widths.track(liabilityColHeader);
 
         for (MonthlyLiabilityDetail detail : record.getLiabilityDetails()) {
             Row row = sheet.createRow(rowNum++);
@@ -341,6 +515,7 @@ public class DataExportService {
             Cell cell = row.createCell(1);
             cell.setCellValue(detail.getAmount().doubleValue());
             cell.setCellStyle(moneyStyle);
+            widths.track(row);
         }
 
         rowNum++;
@@ -349,10 +524,12 @@ public class DataExportService {
         Row incomeHeader = sheet.createRow(rowNum++);
         incomeHeader.createCell(0).setCellValue("收入明细");
         incomeHeader.getCell(0).setCellStyle(headerStyle);
+        widths.track(incomeHeader);
 
         Row incomeColHeader = sheet.createRow(rowNum++);
         incomeColHeader.createCell(0).setCellValue("名称");
         incomeColHeader.createCell(1).setCellValue("金额(万)");
+        widths.track(incomeColHeader);
 
         for (MonthlyIncomeDetail detail : record.getIncomeDetails()) {
             Row row = sheet.createRow(rowNum++);
@@ -360,6 +537,7 @@ public class DataExportService {
             Cell cell = row.createCell(1);
             cell.setCellValue(detail.getAmount().doubleValue());
             cell.setCellStyle(moneyStyle);
+            widths.track(row);
         }
 
         rowNum++;
@@ -368,11 +546,13 @@ public class DataExportService {
         Row expenseHeader = sheet.createRow(rowNum++);
         expenseHeader.createCell(0).setCellValue("支出明细");
         expenseHeader.getCell(0).setCellStyle(headerStyle);
+        widths.track(expenseHeader);
 
         Row expenseColHeader = sheet.createRow(rowNum++);
         expenseColHeader.createCell(0).setCellValue("名称");
         expenseColHeader.createCell(1).setCellValue("金额(万)");
         expenseColHeader.createCell(2).setCellValue("备注");
+        widths.track(expenseColHeader);
 
         for (MonthlyExpenseDetail detail : record.getExpenseDetails()) {
             Row row = sheet.createRow(rowNum++);
@@ -381,11 +561,10 @@ public class DataExportService {
             cell.setCellValue(detail.getAmount().doubleValue());
             cell.setCellStyle(moneyStyle);
             row.createCell(2).setCellValue(detail.getDetail() != null ? detail.getDetail() : "");
+            widths.track(row);
         }
 
-        sheet.autoSizeColumn(0);
-        sheet.autoSizeColumn(1);
-        sheet.autoSizeColumn(2);
+        widths.applyTo(sheet);
     }
 
     private CellStyle createHeaderStyle(Workbook workbook) {
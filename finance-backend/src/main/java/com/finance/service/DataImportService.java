@@ -7,6 +7,7 @@ import com.finance.repository.*;
 import com.opencsv.CSVReader;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -17,6 +18,7 @@ import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class DataImportService {
@@ -24,13 +26,22 @@ public class DataImportService {
     private final AnnualBalancePlanRepository annualPlanRepository;
     private final MonthlyRecordRepository monthlyRecordRepository;
     private final AnnualPlanService annualPlanService;
+    private final SpentAmountService spentAmountService;
+    private final YearlyRollupService yearlyRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public DataImportService(AnnualBalancePlanRepository annualPlanRepository,
                             MonthlyRecordRepository monthlyRecordRepository,
-                            AnnualPlanService annualPlanService) {
+                            AnnualPlanService annualPlanService,
+                            SpentAmountService spentAmountService,
+                            YearlyRollupService yearlyRollupService,
+                            ApplicationEventPublisher eventPublisher) {
         this.annualPlanRepository = annualPlanRepository;
         this.monthlyRecordRepository = monthlyRecordRepository;
         this.annualPlanService = annualPlanService;
+        this.spentAmountService = spentAmountService;
+        this.yearlyRollupService = yearlyRollupService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -85,6 +96,8 @@ public class DataImportService {
             calculateSurplus(plan);
             
             annualPlanRepository.save(plan);
+            yearlyRollupService.refresh(year);
+            eventPublisher.publishEvent(DataChangedEvent.annualPlan(year));
             result.setSuccess(true);
             result.addMessage("年度规划导入完成");
 
@@ -110,6 +123,7 @@ public class DataImportService {
                         newRecord.setMonth(month);
                         return newRecord;
                     });
+            Map<Long, BigDecimal> spentBefore = spentAmountService.snapshot(record);
 
             // Clear existing details
             record.getAssetDetails().clear();
@@ -199,6 +213,9 @@ public class DataImportService {
 
             record.recalculateTotals();
             monthlyRecordRepository.save(record);
+            spentAmountService.applyChange(year, spentBefore, spentAmountService.snapshot(record));
+            yearlyRollupService.refreshMonthlyRecords(year);
+            eventPublisher.publishEvent(DataChangedEvent.monthlyRecords(year));
 
             result.setSuccess(true);
             result.addMessage("导入完成: 资产" + record.getAssetDetails().size() + "条, " +
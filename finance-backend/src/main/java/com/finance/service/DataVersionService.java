@@ -0,0 +1,53 @@
+package com.finance.service;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按年份维护数据变更计数，用于生成 GET 接口的 ETag。写入事务提交后随 {@link DataChangedEvent} 递增，
+ * 校验 If-None-Match 只需一次内存查找，不用查库。
+ * 计数只在进程内有效，ETag 带上启动时间，重启后旧的 ETag 都不会再匹配
+ */
+@Service
+public class DataVersionService {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Integer, AtomicLong> yearVersions = new ConcurrentHashMap<>();
+    // 任意年份变化都会递增，用于跨年份的接口
+    private final AtomicLong anyVersion = new AtomicLong();
+    // 全量变化（重建汇总等）时递增，所有 ETag 都随之变化
+    private final AtomicLong allVersion = new AtomicLong();
+
+    // 在 DashboardCache 清缓存之后递增，保证拿到新 ETag 的请求读不到写入前的缓存结果
+    @Order(DashboardCache.EVICTION_ORDER + 1)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDataChanged(DataChangedEvent event) {
+        if (event.affectsAllYears()) {
+            allVersion.incrementAndGet();
+        } else {
+            event.years().forEach(year -> yearVersions.computeIfAbsent(year, y -> new AtomicLong()).incrementAndGet());
+        }
+        anyVersion.incrementAndGet();
+    }
+
+    /**
+     * 只依赖某一年数据的接口使用
+     */
+    public String etag(Integer year) {
+        AtomicLong version = yearVersions.get(year);
+        return "\"" + epoch + "-" + allVersion.get() + "-" + year + "-" + (version != null ? version.get() : 0) + "\"";
+    }
+
+    /**
+     * 跨年份或列出全部年份的接口使用
+     */
+    public String etag() {
+        return "\"" + epoch + "-" + allVersion.get() + "-" + anyVersion.get() + "\"";
+    }
+}
@@ -0,0 +1,353 @@
+package com.finance.service;
+
+import com.finance.dto.request.ExportJobRequest;
+import com.finance.dto.response.ExportJobResponse;
+import com.finance.enums.ExportJobStatus;
+import com.finance.enums.ExportJobType;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 后台导出任务：提交后由有界线程池生成文件写到 spool 目录，前端轮询进度后下载。
+ * 任务状态只保存在内存里，结束后超过 TTL 的任务和文件由定时任务清理
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    private static final String PART_SUFFIX = ".part";
+    // 只清理按任务 ID 命名的文件，spool 目录配错时也不会误删其他数据
+    private static final String SPOOL_FILE_PATTERN = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\.(xlsx|csv|part)";
+
+    private final DataExportService dataExportService;
+    private final Path spoolDir;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobService(DataExportService dataExportService,
+                            @Value("${finance.export-jobs.spool-dir:./data/export-jobs}") String spoolDir,
+                            @Value("${finance.export-jobs.threads:2}") int threads,
+                            @Value("${finance.export-jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${finance.export-jobs.ttl:PT1H}") Duration ttl) {
+        this.dataExportService = dataExportService;
+        this.spoolDir = Paths.get(spoolDir).toAbsolutePath().normalize();
+        this.ttl = ttl;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ExportThreadFactory());
+        prepareSpoolDir();
+    }
+
+    /**
+     * 校验参数后排队，立即返回任务状态；队列已满时抛出 RejectedExecutionException
+     */
+    public ExportJobResponse submit(ExportJobRequest request) {
+        String filename = validate(request);
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), request, filename);
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new RejectedExecutionException("导出任务排队已满，请稍后再试", e);
+        }
+        return toResponse(job);
+    }
+
+    public ExportJobResponse getStatus(String id) {
+        return toResponse(getJob(id));
+    }
+
+    /**
+     * 已完成任务的结果文件；任务未完成时抛出 IllegalArgumentException
+     */
+    public ResultFile getResultFile(String id) {
+        ExportJob job = getJob(id);
+        if (job.status != ExportJobStatus.SUCCEEDED) {
+            throw new IllegalArgumentException("导出任务" + job.status.getLabel() + "，没有可下载的文件");
+        }
+        if (!Files.exists(job.file)) {
+            throw new EntityNotFoundException("导出文件已过期: " + id);
+        }
+        return new ResultFile(job.file, job.filename, job.request.getType());
+    }
+
+    /**
+     * 取消排队中或导出中的任务。导出中的任务在下一个 sheet / 分段边界停下并删除半成品文件；
+     * 不中断线程，H2 的文件通道被中断会直接关闭数据库
+     */
+    public ExportJobResponse cancel(String id) {
+        ExportJob job = getJob(id);
+        if (!job.cancel()) {
+            throw new IllegalArgumentException("导出任务" + job.status.getLabel() + "，无法取消");
+        }
+        Future<?> future = job.future;
+        if (future != null) {
+            future.cancel(false);
+        }
+        return toResponse(job);
+    }
+
+    /**
+     * 删除结束时间超过 TTL 的任务及其文件，返回清理的任务数
+     */
+    @Scheduled(fixedDelayString = "${finance.export-jobs.cleanup-interval:PT10M}")
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        for (ExportJob job : jobs.values()) {
+            LocalDateTime expiresAt = job.expiresAt(ttl);
+            if (expiresAt != null && !now.isBefore(expiresAt)) {
+                jobs.remove(job.id);
+                if (job.file != null) {
+                    deleteQuietly(job.file);
+                }
+                purged++;
+            }
+        }
+        if (purged > 0) {
+            log.info("清理过期导出任务 {} 个", purged);
+        }
+        return purged;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private String validate(ExportJobRequest request) {
+        return switch (request.getType()) {
+            case ANNUAL_PLAN -> {
+                Integer year = requireYear(request);
+                dataExportService.checkAnnualPlanExists(year);
+                yield year + "年度规划.xlsx";
+            }
+            case MONTHLY_RECORDS -> requireYear(request) + "年月度记录.xlsx";
+            case MONTHLY_RECORDS_CSV -> requireYear(request) + "年月度汇总.csv";
+            case FULL_DATA -> requireYear(request) + "年财务数据.xlsx";
+            case DETAIL_LINES_CSV -> {
+                if (request.getFromYear() == null || request.getToYear() == null) {
+                    throw new IllegalArgumentException("起始年份和结束年份不能为空");
+                }
+                if (request.getFromYear() > request.getToYear()) {
+                    throw new IllegalArgumentException("起始年份不能晚于结束年份");
+                }
+                yield request.getFromYear() + "-" + request.getToYear() + "年月度明细.csv";
+            }
+        };
+    }
+
+    private Integer requireYear(ExportJobRequest request) {
+        if (request.getYear() == null) {
+            throw new IllegalArgumentException("年份不能为空");
+        }
+        return request.getYear();
+    }
+
+    private void run(ExportJob job) {
+        if (!job.start()) {
+            return;
+        }
+        ExportJobRequest request = job.request;
+        Path part = spoolDir.resolve(job.id + PART_SUFFIX);
+        Path target = spoolDir.resolve(job.id + "." + request.getType().getExtension());
+        ExportProgress progress = (done, total) -> {
+            if (job.status == ExportJobStatus.CANCELLED) {
+                throw new CancellationException();
+            }
+            job.progress = Math.min(99, done * 100 / Math.max(total, 1));
+        };
+
+        Throwable failure = null;
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                switch (request.getType()) {
+                    case ANNUAL_PLAN -> dataExportService.writeExcel(dataExportService.buildAnnualPlanWorkbook(request.getYear(), progress), out);
+                    case MONTHLY_RECORDS -> dataExportService.writeExcel(dataExportService.buildMonthlyRecordsWorkbook(request.getYear(), progress), out);
+                    case MONTHLY_RECORDS_CSV -> dataExportService.exportMonthlyRecordsToCsv(request.getYear(), out, progress);
+                    case DETAIL_LINES_CSV -> dataExportService.exportDetailLinesToCsv(request.getFromYear(), request.getToYear(), out, progress);
+                    case FULL_DATA -> dataExportService.writeExcel(dataExportService.buildFullDataWorkbook(request.getYear(), progress), out);
+                }
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            if (!job.succeed(target)) {
+                deleteQuietly(target);
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            deleteQuietly(part);
+        }
+        // 先删半成品再标记失败，轮询到 FAILED 时不会再看到残留的 .part；Error 也要标记，否则状态会一直停在 RUNNING
+        if (failure != null) {
+            if (job.fail(failure.getMessage())) {
+                log.error("导出任务 {} 失败", job.id, failure);
+            }
+            if (failure instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private ExportJob getJob(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("导出任务不存在或已过期: " + id);
+        }
+        return job;
+    }
+
+    private ExportJobResponse toResponse(ExportJob job) {
+        ExportJobResponse response = new ExportJobResponse();
+        response.setId(job.id);
+        response.setType(job.request.getType());
+        response.setStatus(job.status);
+        response.setStatusLabel(job.status.getLabel());
+        response.setProgress(job.progress);
+        response.setFilename(job.filename);
+        response.setMessage(job.message);
+        response.setCreatedAt(job.createdAt);
+        response.setFinishedAt(job.finishedAt);
+        response.setExpiresAt(job.expiresAt(ttl));
+        return response;
+    }
+
+    /**
+     * 任务状态只保存在内存里，重启后 spool 目录中的旧文件已无人认领，启动时一并删除
+     */
+    private void prepareSpoolDir() {
+        try {
+            Files.createDirectories(spoolDir);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir)) {
+                for (Path file : files) {
+                    if (file.getFileName().toString().matches(SPOOL_FILE_PATTERN)) {
+                        deleteQuietly(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法初始化导出目录: " + spoolDir, e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除导出文件失败: {}", file, e);
+        }
+    }
+
+    public record ResultFile(Path path, String filename, ExportJobType type) {
+    }
+
+    /**
+     * 状态迁移：QUEUED -> RUNNING -> SUCCEEDED / FAILED，QUEUED 或 RUNNING 时可以 CANCELLED，
+     * 迁移都在锁内判断当前状态，取消和导出线程同时结束时只有一方生效
+     */
+    private static class ExportJob {
+        private final String id;
+        private final ExportJobRequest request;
+        private final String filename;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile Future<?> future;
+        private volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+        private volatile int progress;
+        private volatile String message;
+        private volatile Path file;
+        private volatile LocalDateTime finishedAt;
+
+        ExportJob(String id, ExportJobRequest request, String filename) {
+            this.id = id;
+            this.request = request;
+            this.filename = filename;
+        }
+
+        synchronized boolean start() {
+            if (status != ExportJobStatus.QUEUED) {
+                return false;
+            }
+            status = ExportJobStatus.RUNNING;
+            return true;
+        }
+
+        synchronized boolean succeed(Path file) {
+            if (status != ExportJobStatus.RUNNING) {
+                return false;
+            }
+            this.file = file;
+            this.progress = 100;
+            finish(ExportJobStatus.SUCCEEDED);
+            return true;
+        }
+
+        synchronized boolean fail(String message) {
+            if (status != ExportJobStatus.RUNNING) {
+                return false;
+            }
+            this.message = message;
+            finish(ExportJobStatus.FAILED);
+            return true;
+        }
+
+        synchronized boolean cancel() {
+            if (status != ExportJobStatus.QUEUED && status != ExportJobStatus.RUNNING) {
+                return false;
+            }
+            finish(ExportJobStatus.CANCELLED);
+            return true;
+        }
+
+        LocalDateTime expiresAt(Duration ttl) {
+            LocalDateTime finished = finishedAt;
+            return finished != null ? finished.plus(ttl) : null;
+        }
+
+        private void finish(ExportJobStatus status) {
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+    }
+
+    private static class ExportThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "export-job-" + counter.incrementAndGet());
+            // 关闭时不等待未完成的导出，任务状态本来就不持久化
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.finance.service;
+
+/**
+ * 导出进度回调：每写完一个 sheet 或一段明细调用一次。实现可以抛出异常来中止导出
+ */
+@FunctionalInterface
+public interface ExportProgress {
+
+    ExportProgress NONE = (done, total) -> { };
+
+    void update(int done, int total);
+}
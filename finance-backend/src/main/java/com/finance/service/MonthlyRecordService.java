@@ -1,42 +1,75 @@
 package com.finance.service;
 
 import com.finance.dto.request.MonthlyRecordRequest;
+import com.finance.dto.response.MonthlyDetailChangeResponse;
 import com.finance.dto.response.MonthlyRecordResponse;
 import com.finance.entity.*;
 import com.finance.repository.*;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class MonthlyRecordService {
 
     private final MonthlyRecordRepository monthlyRecordRepository;
+    private final MonthlyAssetDetailRepository assetDetailRepository;
+    private final MonthlyLiabilityDetailRepository liabilityDetailRepository;
+    private final MonthlyIncomeDetailRepository incomeDetailRepository;
+    private final MonthlyExpenseDetailRepository expenseDetailRepository;
     private final AnnualExpenseRepository annualExpenseRepository;
+    private final SpentAmountService spentAmountService;
+    private final YearlyRollupService yearlyRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public MonthlyRecordService(MonthlyRecordRepository monthlyRecordRepository,
-                                AnnualExpenseRepository annualExpenseRepository) {
+                                MonthlyAssetDetailRepository assetDetailRepository,
+                                MonthlyLiabilityDetailRepository liabilityDetailRepository,
+                                MonthlyIncomeDetailRepository incomeDetailRepository,
+                                MonthlyExpenseDetailRepository expenseDetailRepository,
+                                AnnualExpenseRepository annualExpenseRepository,
+                                SpentAmountService spentAmountService,
+                                YearlyRollupService yearlyRollupService,
+                                ApplicationEventPublisher eventPublisher) {
         this.monthlyRecordRepository = monthlyRecordRepository;
+        this.assetDetailRepository = assetDetailRepository;
+        this.liabilityDetailRepository = liabilityDetailRepository;
+        this.incomeDetailRepository = incomeDetailRepository;
+        this.expenseDetailRepository = expenseDetailRepository;
         this.annualExpenseRepository = annualExpenseRepository;
+        this.spentAmountService = spentAmountService;
+        this.yearlyRollupService = yearlyRollupService;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional(readOnly = true)
     public MonthlyRecordResponse getByYearAndMonth(Integer year, Integer month) {
         MonthlyRecord record = monthlyRecordRepository.findByYearAndMonth(year, month)
                 .orElseThrow(() -> new EntityNotFoundException("未找到" + year + "年" + month + "月的月度记录"));
         return MonthlyRecordResponse.fromEntity(record);
     }
 
+    @Transactional(readOnly = true)
     public List<MonthlyRecordResponse> getByYear(Integer year) {
         return monthlyRecordRepository.findByYearOrderByMonthAsc(year).stream()
                 .map(MonthlyRecordResponse::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<Integer> getAvailableYears() {
+        return monthlyRecordRepository.findDistinctYears();
+    }
+
     @Transactional
     public MonthlyRecordResponse create(MonthlyRecordRequest request) {
         if (monthlyRecordRepository.existsByYearAndMonth(request.getYear(), request.getMonth())) {
@@ -57,6 +90,9 @@ public class MonthlyRecordService {
         
         record.recalculateTotals();
         record = monthlyRecordRepository.save(record);
+        spentAmountService.applyChange(record.getYear(), Map.of(), spentAmountService.snapshot(record));
+        yearlyRollupService.refreshMonthlyRecords(record.getYear());
+        eventPublisher.publishEvent(DataChangedEvent.monthlyRecords(record.getYear()));
         
         return MonthlyRecordResponse.fromEntity(record);
     }
@@ -67,21 +103,196 @@ public class MonthlyRecordService {
                 .orElseThrow(() -> new EntityNotFoundException("未找到ID为" + id + "的月度记录"));
         
         record.setSummary(request.getSummary());
+        Map<Long, BigDecimal> spentBefore = spentAmountService.snapshot(record);
         
-        // Clear and repopulate details
-        record.getAssetDetails().clear();
-        record.getLiabilityDetails().clear();
-        record.getIncomeDetails().clear();
-        record.getExpenseDetails().clear();
-        
-        populateDetails(record, request);
+        // Merge details by id: update matched rows in place, insert new ones, delete removed ones
+        mergeDetails(record.getAssetDetails(), request.getAssetDetails(),
+                MonthlyAssetDetail::getId, MonthlyRecordRequest.AssetDetailDto::getId,
+                MonthlyAssetDetail::getSortOrder, MonthlyAssetDetail::new,
+                record::addAssetDetail, this::applyAssetDetail);
+        mergeDetails(record.getLiabilityDetails(), request.getLiabilityDetails(),
+                MonthlyLiabilityDetail::getId, MonthlyRecordRequest.LiabilityDetailDto::getId,
+                MonthlyLiabilityDetail::getSortOrder, MonthlyLiabilityDetail::new,
+                record::addLiabilityDetail, this::applyLiabilityDetail);
+        mergeDetails(record.getIncomeDetails(), request.getIncomeDetails(),
+                MonthlyIncomeDetail::getId, MonthlyRecordRequest.IncomeDetailDto::getId,
+                MonthlyIncomeDetail::getSortOrder, MonthlyIncomeDetail::new,
+                record::addIncomeDetail, this::applyIncomeDetail);
+        Map<Long, AnnualExpense> annualExpenses = resolveAnnualExpenses(request.getExpenseDetails(),
+                linkedAnnualExpenses(record.getExpenseDetails()));
+        mergeDetails(record.getExpenseDetails(), request.getExpenseDetails(),
+                MonthlyExpenseDetail::getId, MonthlyRecordRequest.ExpenseDetailDto::getId,
+                MonthlyExpenseDetail::getSortOrder, MonthlyExpenseDetail::new,
+                record::addExpenseDetail, (detail, dto) -> applyExpenseDetail(detail, dto, annualExpenses));
         
         record.recalculateTotals();
         record = monthlyRecordRepository.save(record);
+        spentAmountService.applyChange(record.getYear(), spentBefore, spentAmountService.snapshot(record));
+        yearlyRollupService.refreshMonthlyRecords(record.getYear());
+        eventPublisher.publishEvent(DataChangedEvent.monthlyRecords(record.getYear()));
         
         return MonthlyRecordResponse.fromEntity(record);
     }
 
+    // Line-level edits: touch one detail row and adjust the cached totals by delta,
+    // without loading the record's detail collections
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.AssetDetailVo> addAssetDetail(
+            Long recordId, MonthlyRecordRequest.AssetDetailDto dto) {
+        MonthlyRecord record = findRecord(recordId);
+        MonthlyAssetDetail detail = new MonthlyAssetDetail();
+        applyAssetDetail(detail, dto);
+        detail.setMonthlyRecord(record);
+        assetDetailRepository.save(detail);
+        record.adjustTotalAsset(detail.getAmount());
+        return afterLineChange(record, MonthlyRecordResponse.AssetDetailVo.fromEntity(detail));
+    }
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.AssetDetailVo> updateAssetDetail(
+            Long recordId, Long detailId, MonthlyRecordRequest.AssetDetailDto dto) {
+        MonthlyAssetDetail detail = assetDetailRepository.findByIdAndMonthlyRecordId(detailId, recordId)
+                .orElseThrow(() -> detailNotFound(recordId, detailId));
+        BigDecimal before = detail.getAmount();
+        applyAssetDetail(detail, dto);
+        MonthlyRecord record = detail.getMonthlyRecord();
+        record.adjustTotalAsset(detail.getAmount().subtract(before));
+        return afterLineChange(record, MonthlyRecordResponse.AssetDetailVo.fromEntity(detail));
+    }
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.AssetDetailVo> deleteAssetDetail(Long recordId, Long detailId) {
+        MonthlyAssetDetail detail = assetDetailRepository.findByIdAndMonthlyRecordId(detailId, recordId)
+                .orElseThrow(() -> detailNotFound(recordId, detailId));
+        MonthlyRecord record = detail.getMonthlyRecord();
+        assetDetailRepository.delete(detail);
+        record.adjustTotalAsset(detail.getAmount().negate());
+        return afterLineChange(record, null);
+    }
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.LiabilityDetailVo> addLiabilityDetail(
+            Long recordId, MonthlyRecordRequest.LiabilityDetailDto dto) {
+        MonthlyRecord record = findRecord(recordId);
+        MonthlyLiabilityDetail detail = new MonthlyLiabilityDetail();
+        applyLiabilityDetail(detail, dto);
+        detail.setMonthlyRecord(record);
+        liabilityDetailRepository.save(detail);
+        record.adjustTotalLiability(detail.getAmount());
+        return afterLineChange(record, MonthlyRecordResponse.LiabilityDetailVo.fromEntity(detail));
+    }
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.LiabilityDetailVo> updateLiabilityDetail(
+            Long recordId, Long detailId, MonthlyRecordRequest.LiabilityDetailDto dto) {
+        MonthlyLiabilityDetail detail = liabilityDetailRepository.findByIdAndMonthlyRecordId(detailId, recordId)
+                .orElseThrow(() -> detailNotFound(recordId, detailId));
+        BigDecimal before = detail.getAmount();
+        applyLiabilityDetail(detail, dto);
+        MonthlyRecord record = detail.getMonthlyRecord();
+        record.adjustTotalLiability(detail.getAmount().subtract(before));
+        return afterLineChange(record, MonthlyRecordResponse.LiabilityDetailVo.fromEntity(detail));
+    }
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.LiabilityDetailVo> deleteLiabilityDetail(Long recordId, Long detailId) {
+        MonthlyLiabilityDetail detail = liabilityDetailRepository.findByIdAndMonthlyRecordId(detailId, recordId)
+                .orElseThrow(() -> detailNotFound(recordId, detailId));
+        MonthlyRecord record = detail.getMonthlyRecord();
+        liabilityDetailRepository.delete(detail);
+        record.adjustTotalLiability(detail.getAmount().negate());
+        return afterLineChange(record, null);
+    }
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.IncomeDetailVo> addIncomeDetail(
+            Long recordId, MonthlyRecordRequest.IncomeDetailDto dto) {
+        MonthlyRecord record = findRecord(recordId);
+        MonthlyIncomeDetail detail = new MonthlyIncomeDetail();
+        applyIncomeDetail(detail, dto);
+        detail.setMonthlyRecord(record);
+        incomeDetailRepository.save(detail);
+        record.adjustTotalIncome(detail.getAmount());
+        return afterLineChange(record, MonthlyRecordResponse.IncomeDetailVo.fromEntity(detail));
+    }
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.IncomeDetailVo> updateIncomeDetail(
+            Long recordId, Long detailId, MonthlyRecordRequest.IncomeDetailDto dto) {
+        MonthlyIncomeDetail detail = incomeDetailRepository.findByIdAndMonthlyRecordId(detailId, recordId)
+                .orElseThrow(() -> detailNotFound(recordId, detailId));
+        BigDecimal before = detail.getAmount();
+        applyIncomeDetail(detail, dto);
+        MonthlyRecord record = detail.getMonthlyRecord();
+        record.adjustTotalIncome(detail.getAmount().subtract(before));
+        return afterLineChange(record, MonthlyRecordResponse.IncomeDetailVo.fromEntity(detail));
+    }
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.IncomeDetailVo> deleteIncomeDetail(Long recordId, Long detailId) {
+        MonthlyIncomeDetail detail = incomeDetailRepository.findByIdAndMonthlyRecordId(detailId, recordId)
+                .orElseThrow(() -> detailNotFound(recordId, detailId));
+        MonthlyRecord record = detail.getMonthlyRecord();
+        incomeDetailRepository.delete(detail);
+        record.adjustTotalIncome(detail.getAmount().negate());
+        return afterLineChange(record, null);
+    }
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.ExpenseDetailVo> addExpenseDetail(
+            Long recordId, MonthlyRecordRequest.ExpenseDetailDto dto) {
+        MonthlyRecord record = findRecord(recordId);
+        MonthlyExpenseDetail detail = new MonthlyExpenseDetail();
+        applyExpenseDetail(detail, dto, resolveAnnualExpenses(List.of(dto), Map.of()));
+        detail.setMonthlyRecord(record);
+        expenseDetailRepository.save(detail);
+        record.adjustTotalExpense(detail.getAmount());
+        spentAmountService.applyChange(record.getYear(), Map.of(), spentAmountService.snapshot(detail));
+        return afterLineChange(record, MonthlyRecordResponse.ExpenseDetailVo.fromEntity(detail));
+    }
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.ExpenseDetailVo> updateExpenseDetail(
+            Long recordId, Long detailId, MonthlyRecordRequest.ExpenseDetailDto dto) {
+        MonthlyExpenseDetail detail = expenseDetailRepository.findByIdAndMonthlyRecordId(detailId, recordId)
+                .orElseThrow(() -> detailNotFound(recordId, detailId));
+        BigDecimal before = detail.getAmount();
+        Map<Long, BigDecimal> spentBefore = spentAmountService.snapshot(detail);
+        applyExpenseDetail(detail, dto, resolveAnnualExpenses(List.of(dto), linkedAnnualExpenses(List.of(detail))));
+        MonthlyRecord record = detail.getMonthlyRecord();
+        record.adjustTotalExpense(detail.getAmount().subtract(before));
+        spentAmountService.applyChange(record.getYear(), spentBefore, spentAmountService.snapshot(detail));
+        return afterLineChange(record, MonthlyRecordResponse.ExpenseDetailVo.fromEntity(detail));
+    }
+
+    @Transactional
+    public MonthlyDetailChangeResponse<MonthlyRecordResponse.ExpenseDetailVo> deleteExpenseDetail(Long recordId, Long detailId) {
+        MonthlyExpenseDetail detail = expenseDetailRepository.findByIdAndMonthlyRecordId(detailId, recordId)
+                .orElseThrow(() -> detailNotFound(recordId, detailId));
+        MonthlyRecord record = detail.getMonthlyRecord();
+        expenseDetailRepository.delete(detail);
+        record.adjustTotalExpense(detail.getAmount().negate());
+        spentAmountService.applyChange(record.getYear(), spentAmountService.snapshot(detail), Map.of());
+        return afterLineChange(record, null);
+    }
+
+    private MonthlyRecord findRecord(Long id) {
+        return monthlyRecordRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("未找到ID为" + id + "的月度记录"));
+    }
+
+    private EntityNotFoundException detailNotFound(Long recordId, Long detailId) {
+        return new EntityNotFoundException("月度记录" + recordId + "中未找到ID为" + detailId + "的明细");
+    }
+
+    private <T> MonthlyDetailChangeResponse<T> afterLineChange(MonthlyRecord record, T detail) {
+        yearlyRollupService.refreshMonthlyRecords(record.getYear());
+        eventPublisher.publishEvent(DataChangedEvent.monthlyRecords(record.getYear()));
+        return MonthlyDetailChangeResponse.of(record, detail);
+    }
+
+    @Transactional(readOnly = true)
     public MonthlyRecordResponse getPreviousTemplate(Integer year, Integer month) {
         Optional<MonthlyRecord> previous = findPreviousRecord(year, month);
         if (previous.isEmpty()) {
@@ -174,11 +385,7 @@ public class MonthlyRecordService {
         if (request.getAssetDetails() != null) {
             for (MonthlyRecordRequest.AssetDetailDto dto : request.getAssetDetails()) {
                 MonthlyAssetDetail detail = new MonthlyAssetDetail();
-                detail.setAssetGroup(dto.getAssetGroup());
-                detail.setName(dto.getName());
-                detail.setAmount(dto.getAmount());
-                detail.setReturnRate(dto.getReturnRate());
-                detail.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : 0);
+                applyAssetDetail(detail, dto);
                 record.addAssetDetail(detail);
             }
         }
@@ -186,10 +393,7 @@ public class MonthlyRecordService {
         if (request.getLiabilityDetails() != null) {
             for (MonthlyRecordRequest.LiabilityDetailDto dto : request.getLiabilityDetails()) {
                 MonthlyLiabilityDetail detail = new MonthlyLiabilityDetail();
-                detail.setName(dto.getName());
-                detail.setAmount(dto.getAmount());
-                detail.setInterestRate(dto.getInterestRate());
-                detail.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : 0);
+                applyLiabilityDetail(detail, dto);
                 record.addLiabilityDetail(detail);
             }
         }
@@ -197,37 +401,158 @@ public class MonthlyRecordService {
         if (request.getIncomeDetails() != null) {
             for (MonthlyRecordRequest.IncomeDetailDto dto : request.getIncomeDetails()) {
                 MonthlyIncomeDetail detail = new MonthlyIncomeDetail();
-                detail.setName(dto.getName());
-                detail.setAmount(dto.getAmount());
-                detail.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : 0);
+                applyIncomeDetail(detail, dto);
                 record.addIncomeDetail(detail);
             }
         }
         
         if (request.getExpenseDetails() != null) {
+            Map<Long, AnnualExpense> annualExpenses = resolveAnnualExpenses(request.getExpenseDetails(), Map.of());
             for (MonthlyRecordRequest.ExpenseDetailDto dto : request.getExpenseDetails()) {
                 MonthlyExpenseDetail detail = new MonthlyExpenseDetail();
-                detail.setName(dto.getName());
-                detail.setAmount(dto.getAmount());
-                detail.setDetail(dto.getDetail());
-                detail.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : 0);
-                
-                if (dto.getAnnualExpenseId() != null) {
-                    AnnualExpense expense = annualExpenseRepository.findById(dto.getAnnualExpenseId())
-                            .orElse(null);
-                    detail.setAnnualExpense(expense);
-                }
-                
+                applyExpenseDetail(detail, dto, annualExpenses);
                 record.addExpenseDetail(detail);
             }
         }
     }
 
+    /**
+     * 按 id 合并一组明细：id 匹配的行原地更新，没有 id 或 id 不属于本记录的作为新行插入，
+     * 请求中不再出现的行从集合中移除（orphanRemoval 负责删除）。dtos 为 null 视为清空
+     */
+    private <E, D> void mergeDetails(List<E> details, List<D> dtos,
+                                     Function<E, Long> entityId, Function<D, Long> dtoId,
+                                     Function<E, Integer> sortOrder, Supplier<E> factory,
+                                     Consumer<E> adder, BiConsumer<E, D> apply) {
+        List<D> incoming = dtos != null ? dtos : List.of();
+        Map<Long, E> existingById = new HashMap<>();
+        for (E detail : details) {
+            existingById.put(entityId.apply(detail), detail);
+        }
+        
+        Set<Long> keptIds = new HashSet<>();
+        for (D dto : incoming) {
+            Long id = dtoId.apply(dto);
+            if (id != null && existingById.containsKey(id)) {
+                keptIds.add(id);
+            }
+        }
+        details.removeIf(detail -> !keptIds.contains(entityId.apply(detail)));
+        
+        for (D dto : incoming) {
+            Long id = dtoId.apply(dto);
+            if (id != null && keptIds.contains(id)) {
+                apply.accept(existingById.get(id), dto);
+            } else {
+                E detail = factory.get();
+                apply.accept(detail, dto);
+                adder.accept(detail);
+            }
+        }
+        
+        details.sort(Comparator.comparing(sortOrder, Comparator.nullsLast(Comparator.naturalOrder())));
+    }
+
+    private void applyAssetDetail(MonthlyAssetDetail detail, MonthlyRecordRequest.AssetDetailDto dto) {
+        detail.setAssetGroup(dto.getAssetGroup());
+        detail.setName(dto.getName());
+        detail.setAmount(dto.getAmount());
+        detail.setReturnRate(dto.getReturnRate());
+        detail.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : 0);
+    }
+
+    private void applyLiabilityDetail(MonthlyLiabilityDetail detail, MonthlyRecordRequest.LiabilityDetailDto dto) {
+        detail.setName(dto.getName());
+        detail.setAmount(dto.getAmount());
+        detail.setInterestRate(dto.getInterestRate());
+        detail.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : 0);
+    }
+
+    private void applyIncomeDetail(MonthlyIncomeDetail detail, MonthlyRecordRequest.IncomeDetailDto dto) {
+        detail.setName(dto.getName());
+        detail.setAmount(dto.getAmount());
+        detail.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : 0);
+    }
+
+    private void applyExpenseDetail(MonthlyExpenseDetail detail, MonthlyRecordRequest.ExpenseDetailDto dto,
+                                    Map<Long, AnnualExpense> annualExpenses) {
+        detail.setName(dto.getName());
+        detail.setAmount(dto.getAmount());
+        detail.setDetail(dto.getDetail());
+        detail.setSortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : 0);
+        detail.setAnnualExpense(dto.getAnnualExpenseId() != null ? annualExpenses.get(dto.getAnnualExpenseId()) : null);
+    }
+
+    /**
+     * 一次查询解析请求中引用的所有预算项，key 为 annualExpenseId。known 中已有的不再查询；
+     * 有不存在的 id 时一并报出
+     */
+    private Map<Long, AnnualExpense> resolveAnnualExpenses(List<MonthlyRecordRequest.ExpenseDetailDto> dtos,
+                                                           Map<Long, AnnualExpense> known) {
+        Map<Long, AnnualExpense> resolved = new HashMap<>(known);
+        if (dtos == null) {
+            return resolved;
+        }
+        
+        Set<Long> missingIds = dtos.stream()
+                .map(MonthlyRecordRequest.ExpenseDetailDto::getAnnualExpenseId)
+                .filter(id -> id != null && !resolved.containsKey(id))
+                .collect(Collectors.toCollection(TreeSet::new));
+        if (missingIds.isEmpty()) {
+            return resolved;
+        }
+        
+        for (AnnualExpense expense : annualExpenseRepository.findAllById(missingIds)) {
+            resolved.put(expense.getId(), expense);
+        }
+        missingIds.removeAll(resolved.keySet());
+        if (!missingIds.isEmpty()) {
+            throw new IllegalArgumentException("年度预算项不存在: " + missingIds);
+        }
+        return resolved;
+    }
+
+    private Map<Long, AnnualExpense> linkedAnnualExpenses(List<MonthlyExpenseDetail> details) {
+        Map<Long, AnnualExpense> linked = new HashMap<>();
+        for (MonthlyExpenseDetail detail : details) {
+            if (detail.getAnnualExpense() != null) {
+                linked.put(detail.getAnnualExpense().getId(), detail.getAnnualExpense());
+            }
+        }
+        return linked;
+    }
+
     @Transactional
     public void delete(Long id) {
-        if (!monthlyRecordRepository.existsById(id)) {
-            throw new EntityNotFoundException("未找到ID为" + id + "的月度记录");
+        Integer year = monthlyRecordRepository.findYearById(id)
+                .orElseThrow(() -> new EntityNotFoundException("未找到ID为" + id + "的月度记录"));
+        deleteRecords(year, List.of(id));
+    }
+
+    /**
+     * 删除某年的全部月度记录，返回删除的记录数
+     */
+    @Transactional
+    public int deleteByYear(Integer year) {
+        List<Long> recordIds = monthlyRecordRepository.findIdsByYear(year);
+        if (!recordIds.isEmpty()) {
+            deleteRecords(year, recordIds);
         }
-        monthlyRecordRepository.deleteById(id);
+        return recordIds.size();
+    }
+
+    /**
+     * 批量删除同一年的若干条记录：先按汇总回退预算已支出金额，再按 monthly_record_id 删明细表，最后删记录，
+     * 语句数与明细行数无关。批量删除绕过持久化上下文，调用前不要加载这些记录
+     */
+    private void deleteRecords(Integer year, List<Long> recordIds) {
+        spentAmountService.applyChange(year, expenseDetailRepository.sumAmountByAnnualExpenseForRecords(recordIds), Map.of());
+        assetDetailRepository.deleteByMonthlyRecordIds(recordIds);
+        liabilityDetailRepository.deleteByMonthlyRecordIds(recordIds);
+        incomeDetailRepository.deleteByMonthlyRecordIds(recordIds);
+        expenseDetailRepository.deleteByMonthlyRecordIds(recordIds);
+        monthlyRecordRepository.deleteByIds(recordIds);
+        yearlyRollupService.refreshMonthlyRecords(year);
+        eventPublisher.publishEvent(DataChangedEvent.monthlyRecords(year));
     }
 }
@@ -0,0 +1,94 @@
+package com.finance.service;
+
+import com.finance.entity.MonthlyExpenseDetail;
+import com.finance.entity.MonthlyRecord;
+import com.finance.repository.AnnualExpenseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 维护 AnnualExpense.spentAmount：月度记录写入时按差额增量更新，定时任务全量核对
+ */
+@Service
+public class SpentAmountService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpentAmountService.class);
+
+    private final AnnualExpenseRepository annualExpenseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SpentAmountService(AnnualExpenseRepository annualExpenseRepository,
+                              ApplicationEventPublisher eventPublisher) {
+        this.annualExpenseRepository = annualExpenseRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 按预算项汇总一条月度记录中已关联的支出金额，key 为 annualExpenseId
+     */
+    public Map<Long, BigDecimal> snapshot(MonthlyRecord record) {
+        Map<Long, BigDecimal> amounts = new HashMap<>();
+        for (MonthlyExpenseDetail detail : record.getExpenseDetails()) {
+            if (detail.getAnnualExpense() == null || detail.getAmount() == null) {
+                continue;
+            }
+            amounts.merge(detail.getAnnualExpense().getId(), detail.getAmount(), BigDecimal::add);
+        }
+        return amounts;
+    }
+
+    /**
+     * 单行支出明细的已关联金额，未关联预算项时为空
+     */
+    public Map<Long, BigDecimal> snapshot(MonthlyExpenseDetail detail) {
+        if (detail.getAnnualExpense() == null || detail.getAmount() == null) {
+            return Map.of();
+        }
+        return Map.of(detail.getAnnualExpense().getId(), detail.getAmount());
+    }
+
+    /**
+     * 把 before -> after 的差额加到对应预算项上。只有同一年度规划下的预算项才计入，与全量汇总口径一致。
+     * 差额用 UPDATE 直接累加，不在内存里读改写，并发写入同一预算项时不会互相覆盖
+     */
+    @Transactional
+    public void applyChange(Integer year, Map<Long, BigDecimal> before, Map<Long, BigDecimal> after) {
+        Set<Long> expenseIds = new HashSet<>(before.keySet());
+        expenseIds.addAll(after.keySet());
+        for (Long expenseId : expenseIds) {
+            BigDecimal delta = after.getOrDefault(expenseId, BigDecimal.ZERO)
+                    .subtract(before.getOrDefault(expenseId, BigDecimal.ZERO));
+            if (delta.signum() != 0) {
+                annualExpenseRepository.addSpentAmount(expenseId, year, delta);
+            }
+        }
+    }
+
+    /**
+     * 用全量汇总核对所有预算项的已支出金额，修正不一致的值，返回修正的条数。
+     * 汇总和修正在数据库里一条 UPDATE 完成，启动后和夜间运行时与并发写入互不覆盖
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${finance.spent-amount.reconcile-cron:0 30 3 * * *}")
+    public int reconcile() {
+        int fixed = annualExpenseRepository.reconcileSpentAmounts();
+        if (fixed > 0) {
+            log.warn("已支出金额与明细汇总不一致，已修正 {} 个预算项", fixed);
+            eventPublisher.publishEvent(DataChangedEvent.all());
+        }
+        return fixed;
+    }
+}
@@ -0,0 +1,132 @@
+package com.finance.service;
+
+import com.finance.entity.YearlyRollup;
+import com.finance.enums.ExpenseCategory;
+import com.finance.repository.MonthlyExpenseDetailRepository;
+import com.finance.repository.MonthlyRecordRepository;
+import com.finance.repository.YearlyRollupRepository;
+import com.finance.repository.projection.ExpenseCategoryAmount;
+import com.finance.repository.projection.MonthlyTotalsView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 维护 yearly_rollup：月度记录或年度规划写入后在同一事务内重算对应年份
+ */
+@Service
+public class YearlyRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(YearlyRollupService.class);
+
+    private final YearlyRollupRepository yearlyRollupRepository;
+    private final MonthlyRecordRepository monthlyRecordRepository;
+    private final MonthlyExpenseDetailRepository expenseDetailRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public YearlyRollupService(YearlyRollupRepository yearlyRollupRepository,
+                               MonthlyRecordRepository monthlyRecordRepository,
+                               MonthlyExpenseDetailRepository expenseDetailRepository,
+                               ApplicationEventPublisher eventPublisher) {
+        this.yearlyRollupRepository = yearlyRollupRepository;
+        this.monthlyRecordRepository = monthlyRecordRepository;
+        this.expenseDetailRepository = expenseDetailRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 月度记录变化后调用：该年最后一条记录是下一年的年初净资产，下一年的汇总也要重算
+     */
+    @Transactional
+    public void refreshMonthlyRecords(Integer year) {
+        refresh(year);
+        refresh(year + 1);
+    }
+
+    /**
+     * 重算某一年的汇总；该年已没有月度记录时删除汇总行
+     */
+    @Transactional
+    public void refresh(Integer year) {
+        List<MonthlyTotalsView> months = monthlyRecordRepository.findTotalsByYear(year);
+        Optional<YearlyRollup> existing = yearlyRollupRepository.findByYear(year);
+        if (months.isEmpty()) {
+            existing.ifPresent(yearlyRollupRepository::delete);
+            return;
+        }
+
+        YearlyRollup rollup = existing.orElseGet(() -> {
+            YearlyRollup newRollup = new YearlyRollup();
+            newRollup.setYear(year);
+            return newRollup;
+        });
+
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        BigDecimal totalExpense = BigDecimal.ZERO;
+        for (MonthlyTotalsView month : months) {
+            totalIncome = totalIncome.add(month.getTotalIncome());
+            totalExpense = totalExpense.add(month.getTotalExpense());
+        }
+        rollup.setMonthCount(months.size());
+        rollup.setTotalIncome(totalIncome);
+        rollup.setTotalExpense(totalExpense);
+        rollup.setSurplus(totalIncome.subtract(totalExpense));
+
+        // 年初取上一年最后一条记录的期末净资产，上一年没有记录时才退回当年第一条；年末取当年最后一条
+        BigDecimal startNetWorth = monthlyRecordRepository.findFirstByYearOrderByMonthDesc(year - 1)
+                .orElse(months.get(0))
+                .getNetWorth();
+        BigDecimal endNetWorth = months.get(months.size() - 1).getNetWorth();
+        rollup.setStartNetWorth(startNetWorth);
+        rollup.setEndNetWorth(endNetWorth);
+        rollup.setNetWorthDelta(endNetWorth.subtract(startNetWorth));
+
+        // 未关联预算的支出计入“其他”
+        rollup.getCategorySpend().clear();
+        for (ExpenseCategoryAmount row : expenseDetailRepository.sumAmountGroupByCategoryForYear(year)) {
+            ExpenseCategory category = row.getCategory() != null ? row.getCategory() : ExpenseCategory.OTHER;
+            rollup.getCategorySpend().merge(category, row.getAmount(), BigDecimal::add);
+        }
+
+        yearlyRollupRepository.save(rollup);
+    }
+
+    /**
+     * 按现有月度记录重建全部年度汇总，返回重建的年份数
+     */
+    @Transactional
+    public int rebuildAll() {
+        List<Integer> years = monthlyRecordRepository.findDistinctYears();
+        for (YearlyRollup rollup : yearlyRollupRepository.findAll()) {
+            if (!years.contains(rollup.getYear())) {
+                yearlyRollupRepository.delete(rollup);
+            }
+        }
+        years.forEach(this::refresh);
+        eventPublisher.publishEvent(DataChangedEvent.all());
+        return years.size();
+    }
+
+    /**
+     * 首次启动（汇总表为空）时回填历史数据
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (yearlyRollupRepository.count() > 0) {
+            return;
+        }
+        int years = rebuildAll();
+        if (years > 0) {
+            log.info("年度汇总回填完成: {} 个年份", years);
+        }
+    }
+}
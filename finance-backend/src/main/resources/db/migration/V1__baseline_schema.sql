@@ -0,0 +1,151 @@
+-- 年度规划与月度记录的基础表结构。
+-- 所有语句都带 IF NOT EXISTS：引入迁移之前由 ddl-auto 建好的库从版本 0 起跑时可以安全重放
+
+CREATE TABLE IF NOT EXISTS annual_balance_plan (
+    id BIGINT NOT NULL,
+    plan_year INTEGER NOT NULL,
+    monthly_surplus NUMERIC(15,2),
+    annual_surplus NUMERIC(15,2),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id),
+    UNIQUE (plan_year)
+);
+
+CREATE TABLE IF NOT EXISTS annual_income (
+    id BIGINT NOT NULL,
+    annual_plan_id BIGINT NOT NULL,
+    income_type VARCHAR(255) NOT NULL CHECK (income_type IN ('SALARY','FUND','BONUS','DIVIDEND','OTHER')),
+    name VARCHAR(255) NOT NULL,
+    amount NUMERIC(15,2) NOT NULL,
+    is_monthly BOOLEAN NOT NULL,
+    remark VARCHAR(200),
+    sort_order INTEGER,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS annual_expense (
+    id BIGINT NOT NULL,
+    annual_plan_id BIGINT NOT NULL,
+    parent_category VARCHAR(255) CHECK (parent_category IN ('PROTECTION','LEISURE','DAILY','OTHER')),
+    category VARCHAR(255) NOT NULL,
+    budget_amount NUMERIC(15,2) NOT NULL,
+    spent_amount NUMERIC(15,2),
+    is_monthly BOOLEAN,
+    sort_order INTEGER,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS asset_target (
+    id BIGINT NOT NULL,
+    annual_plan_id BIGINT NOT NULL,
+    asset_group VARCHAR(255) NOT NULL CHECK (asset_group IN ('LIQUID','PROTECTION','INVESTMENT')),
+    name VARCHAR(255) NOT NULL,
+    target_amount NUMERIC(15,2) NOT NULL,
+    expected_return_rate NUMERIC(5,2),
+    allocation_percentage NUMERIC(5,2),
+    sort_order INTEGER,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS liability_target (
+    id BIGINT NOT NULL,
+    annual_plan_id BIGINT NOT NULL,
+    liability_group VARCHAR(255) CHECK (liability_group IN ('LOAN')),
+    name VARCHAR(255) NOT NULL,
+    target_balance NUMERIC(15,2) NOT NULL,
+    interest_rate NUMERIC(5,2),
+    sort_order INTEGER,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS monthly_record (
+    id BIGINT NOT NULL,
+    record_year INTEGER NOT NULL,
+    record_month INTEGER NOT NULL,
+    total_asset NUMERIC(15,2),
+    total_liability NUMERIC(15,2),
+    total_income NUMERIC(15,2),
+    total_expense NUMERIC(15,2),
+    summary VARCHAR(1000),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id),
+    UNIQUE (record_year, record_month)
+);
+
+CREATE TABLE IF NOT EXISTS monthly_asset_detail (
+    id BIGINT NOT NULL,
+    monthly_record_id BIGINT NOT NULL,
+    asset_group VARCHAR(255) NOT NULL CHECK (asset_group IN ('LIQUID','PROTECTION','INVESTMENT')),
+    name VARCHAR(255) NOT NULL,
+    amount NUMERIC(15,2) NOT NULL,
+    return_rate NUMERIC(5,2),
+    sort_order INTEGER,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS monthly_liability_detail (
+    id BIGINT NOT NULL,
+    monthly_record_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    amount NUMERIC(15,2) NOT NULL,
+    interest_rate NUMERIC(5,2),
+    sort_order INTEGER,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS monthly_income_detail (
+    id BIGINT NOT NULL,
+    monthly_record_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    amount NUMERIC(15,2) NOT NULL,
+    sort_order INTEGER,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS monthly_expense_detail (
+    id BIGINT NOT NULL,
+    monthly_record_id BIGINT NOT NULL,
+    annual_expense_id BIGINT,
+    name VARCHAR(255) NOT NULL,
+    amount NUMERIC(15,2) NOT NULL,
+    detail VARCHAR(500),
+    sort_order INTEGER,
+    PRIMARY KEY (id)
+);
+
+-- 明细按记录读取、按预算项汇总、按资产分组汇总以及年度规划子表读取用到的索引。
+-- 先于外键创建，H2 可以直接复用单列的 annual_expense_id 索引而不再为外键另建一个
+
+CREATE INDEX IF NOT EXISTS idx_asset_detail_record_sort ON monthly_asset_detail (monthly_record_id, sort_order);
+CREATE INDEX IF NOT EXISTS idx_asset_detail_record_group ON monthly_asset_detail (monthly_record_id, asset_group, amount);
+CREATE INDEX IF NOT EXISTS idx_liability_detail_record_sort ON monthly_liability_detail (monthly_record_id, sort_order);
+CREATE INDEX IF NOT EXISTS idx_income_detail_record_sort ON monthly_income_detail (monthly_record_id, sort_order);
+CREATE INDEX IF NOT EXISTS idx_expense_detail_record_sort ON monthly_expense_detail (monthly_record_id, sort_order);
+CREATE INDEX IF NOT EXISTS idx_expense_detail_annual_expense ON monthly_expense_detail (annual_expense_id);
+
+CREATE INDEX IF NOT EXISTS idx_annual_expense_plan_sort ON annual_expense (annual_plan_id, sort_order);
+CREATE INDEX IF NOT EXISTS idx_annual_income_plan_sort ON annual_income (annual_plan_id, sort_order);
+CREATE INDEX IF NOT EXISTS idx_asset_target_plan_sort ON asset_target (annual_plan_id, sort_order);
+CREATE INDEX IF NOT EXISTS idx_liability_target_plan_sort ON liability_target (annual_plan_id, sort_order);
+
+-- 外键名与 Hibernate 生成的一致，已有库里的约束会被跳过
+ALTER TABLE annual_income ADD CONSTRAINT IF NOT EXISTS FKqu75n7h6l4o1pua08ladetd8s
+    FOREIGN KEY (annual_plan_id) REFERENCES annual_balance_plan;
+ALTER TABLE annual_expense ADD CONSTRAINT IF NOT EXISTS FK3xlpr37tn0q3lx28a675iotp7
+    FOREIGN KEY (annual_plan_id) REFERENCES annual_balance_plan;
+ALTER TABLE asset_target ADD CONSTRAINT IF NOT EXISTS FK7a93pjgihfi0g02pvfv44kf1i
+    FOREIGN KEY (annual_plan_id) REFERENCES annual_balance_plan;
+ALTER TABLE liability_target ADD CONSTRAINT IF NOT EXISTS FK364q1jjq11pmvqw24omdo88mx
+    FOREIGN KEY (annual_plan_id) REFERENCES annual_balance_plan;
+ALTER TABLE monthly_asset_detail ADD CONSTRAINT IF NOT EXISTS FKk1kg6snwkw27ydry3owsi0epo
+    FOREIGN KEY (monthly_record_id) REFERENCES monthly_record;
+ALTER TABLE monthly_liability_detail ADD CONSTRAINT IF NOT EXISTS FK62boym1cxixqj1gcl1ygf2c9g
+    FOREIGN KEY (monthly_record_id) REFERENCES monthly_record;
+ALTER TABLE monthly_income_detail ADD CONSTRAINT IF NOT EXISTS FKddu8038wj1ib3wuhy3iijllj4
+    FOREIGN KEY (monthly_record_id) REFERENCES monthly_record;
+ALTER TABLE monthly_expense_detail ADD CONSTRAINT IF NOT EXISTS FKs9l3jht1xn5iea40m3yc7kw60
+    FOREIGN KEY (monthly_record_id) REFERENCES monthly_record;
+ALTER TABLE monthly_expense_detail ADD CONSTRAINT IF NOT EXISTS FKaltshbbw1ngkpqjr35m15dk7j
+    FOREIGN KEY (annual_expense_id) REFERENCES annual_expense;
@@ -0,0 +1,26 @@
+-- 按年预汇总的收支与净资产，由 YearlyRollupService 在写入时刷新
+
+CREATE TABLE IF NOT EXISTS yearly_rollup (
+    id BIGINT NOT NULL,
+    rollup_year INTEGER NOT NULL,
+    month_count INTEGER NOT NULL,
+    total_income NUMERIC(15,2),
+    total_expense NUMERIC(15,2),
+    surplus NUMERIC(15,2),
+    start_net_worth NUMERIC(15,2),
+    end_net_worth NUMERIC(15,2),
+    net_worth_delta NUMERIC(15,2),
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id),
+    UNIQUE (rollup_year)
+);
+
+CREATE TABLE IF NOT EXISTS yearly_rollup_category (
+    rollup_id BIGINT NOT NULL,
+    category VARCHAR(255) NOT NULL CHECK (category IN ('PROTECTION','LEISURE','DAILY','OTHER')),
+    amount NUMERIC(15,2),
+    PRIMARY KEY (rollup_id, category)
+);
+
+ALTER TABLE yearly_rollup_category ADD CONSTRAINT IF NOT EXISTS FKeu5nex8c7fop8sfdqn1pycxrf
+    FOREIGN KEY (rollup_id) REFERENCES yearly_rollup;
@@ -0,0 +1,26 @@
+-- 主键改用 allocationSize = 50 的 pooled 序列。
+-- 旧库的主键来自自增列，序列要对齐到表中最大 ID 之后；pooled 优化器把序列值当作号段上界，所以再加 50
+
+CREATE SEQUENCE IF NOT EXISTS annual_balance_plan_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS annual_income_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS annual_expense_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS asset_target_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS liability_target_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS monthly_record_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS monthly_asset_detail_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS monthly_liability_detail_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS monthly_income_detail_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS monthly_expense_detail_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS yearly_rollup_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE annual_balance_plan_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM annual_balance_plan);
+ALTER SEQUENCE annual_income_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM annual_income);
+ALTER SEQUENCE annual_expense_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM annual_expense);
+ALTER SEQUENCE asset_target_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM asset_target);
+ALTER SEQUENCE liability_target_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM liability_target);
+ALTER SEQUENCE monthly_record_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM monthly_record);
+ALTER SEQUENCE monthly_asset_detail_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM monthly_asset_detail);
+ALTER SEQUENCE monthly_liability_detail_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM monthly_liability_detail);
+ALTER SEQUENCE monthly_income_detail_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM monthly_income_detail);
+ALTER SEQUENCE monthly_expense_detail_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM monthly_expense_detail);
+ALTER SEQUENCE yearly_rollup_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM yearly_rollup);
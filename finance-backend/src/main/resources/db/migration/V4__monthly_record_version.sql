@@ -0,0 +1,3 @@
+-- 月度记录加乐观锁版本号：并发的整条保存和单行增删改都会改写汇总列，冲突时后提交的一方失败而不是覆盖
+
+ALTER TABLE monthly_record ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
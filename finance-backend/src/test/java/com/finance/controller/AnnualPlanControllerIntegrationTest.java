@@ -4,6 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.finance.dto.request.AnnualPlanRequest;
 import com.finance.enums.AssetGroup;
 import com.finance.enums.IncomeType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -19,6 +22,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +39,9 @@ class AnnualPlanControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
     @Order(1)
     @DisplayName("POST /api/annual-plan - 创建年度规划")
@@ -124,6 +131,40 @@ class AnnualPlanControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @Order(7)
+    @DisplayName("GET /api/annual-plan/{year} - 重复读取走二级缓存，不访问数据库")
+    void getAnnualPlan_SecondLevelCache() throws Exception {
+        AnnualPlanRequest request = buildTestRequest(2032);
+        mockMvc.perform(post("/api/annual-plan")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/annual-plan/2032"))
+                .andExpect(status().isOk());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/annual-plan/2032"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.annualIncomes[0].name").value("工资"))
+                .andExpect(jsonPath("$.data.assetTargets", hasSize(1)))
+                .andExpect(jsonPath("$.data.annualExpenses", hasSize(1)));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(1);
+
+        // 写入后缓存随之更新
+        request.getAnnualIncomes().get(0).setName("工资收入");
+        mockMvc.perform(put("/api/annual-plan/2032")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/annual-plan/2032"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.annualIncomes", hasSize(1)))
+                .andExpect(jsonPath("$.data.annualIncomes[0].name").value("工资收入"));
+    }
+
     private AnnualPlanRequest buildTestRequest(int year) {
         AnnualPlanRequest request = new AnnualPlanRequest();
         request.setYear(year);
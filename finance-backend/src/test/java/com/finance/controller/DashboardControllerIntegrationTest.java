@@ -0,0 +1,501 @@
+package com.finance.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.dto.request.AnnualPlanRequest;
+import com.finance.dto.request.MonthlyRecordRequest;
+import com.finance.enums.AssetGroup;
+import com.finance.enums.ExpenseCategory;
+import com.finance.service.DataVersionService;
+import com.finance.service.SpentAmountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+class DashboardControllerIntegrationTest {
+
+    private static final int YEAR = 2025;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SpentAmountService spentAmountService;
+
+    @SpyBean
+    private DataVersionService dataVersionService;
+
+    private boolean seeded;
+
+    @BeforeEach
+    void setup() throws Exception {
+        if (seeded) {
+            return;
+        }
+        seeded = true;
+
+        AnnualPlanRequest planRequest = new AnnualPlanRequest();
+        planRequest.setYear(YEAR);
+
+        AnnualPlanRequest.AssetTargetDto assetTarget = new AnnualPlanRequest.AssetTargetDto();
+        assetTarget.setAssetGroup(AssetGroup.LIQUID);
+        assetTarget.setName("活钱账户");
+        assetTarget.setTargetAmount(BigDecimal.valueOf(80));
+        planRequest.setAssetTargets(List.of(assetTarget));
+
+        AnnualPlanRequest.LiabilityTargetDto liabilityTarget = new AnnualPlanRequest.LiabilityTargetDto();
+        liabilityTarget.setName("房贷");
+        liabilityTarget.setTargetBalance(BigDecimal.valueOf(90));
+        planRequest.setLiabilityTargets(List.of(liabilityTarget));
+
+        planRequest.setAnnualIncomes(new ArrayList<>());
+        planRequest.setAnnualExpenses(new ArrayList<>());
+
+        mockMvc.perform(post("/api/annual-plan")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(planRequest)))
+                .andExpect(status().isOk());
+
+        for (int month = 1; month <= 3; month++) {
+            postRecord(buildRecordRequest(YEAR, month));
+        }
+        postRecord(buildRecordRequest(YEAR - 1, 12));
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/annual-target-trend/{year} - 全年记录一次查询取出")
+    void getAnnualTargetTrend_SingleRecordQuery() throws Exception {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/dashboard/annual-target-trend/" + YEAR))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.hasTarget").value(true))
+                .andExpect(jsonPath("$.data.monthlyData", hasSize(12)))
+                .andExpect(jsonPath("$.data.monthlyData[0].assetActual").value(51))
+                .andExpect(jsonPath("$.data.monthlyData[2].assetActual").value(53))
+                .andExpect(jsonPath("$.data.monthlyData[3].assetActual").value(nullValue()));
+
+        // plan + asset targets + liability targets + one query for all months
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/asset-trend - 只查询汇总列，不加载明细")
+    void getAssetTrend_TotalsOnly() throws Exception {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/dashboard/asset-trend").param("year", String.valueOf(YEAR)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(3)))
+                .andExpect(jsonPath("$.data[0].month").value(1))
+                .andExpect(jsonPath("$.data[0].asset").value(51))
+                .andExpect(jsonPath("$.data[0].netWorth").value(-48));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/asset-trend?from&to - 跨年区间一次查询")
+    void getAssetTrend_Range() throws Exception {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/dashboard/asset-trend")
+                        .param("from", (YEAR - 1) + "-06")
+                        .param("to", YEAR + "-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(3)))
+                .andExpect(jsonPath("$.data[0].period").value((YEAR - 1) + "-12"))
+                .andExpect(jsonPath("$.data[0].asset").value(62))
+                .andExpect(jsonPath("$.data[1].period").value(YEAR + "-01"))
+                .andExpect(jsonPath("$.data[2].period").value(YEAR + "-02"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/asset-trend - 参数组合非法返回 400")
+    void getAssetTrend_InvalidRange() throws Exception {
+        mockMvc.perform(get("/api/dashboard/asset-trend")
+                        .param("from", YEAR + "-06")
+                        .param("to", YEAR + "-01"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/dashboard/asset-trend")
+                        .param("from", YEAR + "-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/annual-progress/{year} - 已支出金额随月度记录增删改增量维护")
+    void getAnnualProgress_SpentAmountMaintainedOnWrites() throws Exception {
+        int year = 2030;
+        long expenseId = createBudgetPlan(year);
+
+        MonthlyRecordRequest recordRequest = buildRecordRequest(year, 1);
+        MonthlyRecordRequest.ExpenseDetailDto expenseDetail = new MonthlyRecordRequest.ExpenseDetailDto();
+        expenseDetail.setName("机票");
+        expenseDetail.setAmount(BigDecimal.valueOf(2));
+        expenseDetail.setAnnualExpenseId(expenseId);
+        recordRequest.setExpenseDetails(List.of(expenseDetail));
+
+        String recordResponse = mockMvc.perform(post("/api/monthly-record")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(recordRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long recordId = objectMapper.readTree(recordResponse).path("data").path("id").asLong();
+        expectSpent(year, 2);
+
+        expenseDetail.setAmount(BigDecimal.valueOf(3.5));
+        mockMvc.perform(put("/api/monthly-record/" + recordId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(recordRequest)))
+                .andExpect(status().isOk());
+        expectSpent(year, 3.5);
+
+        mockMvc.perform(delete("/api/monthly-record/" + recordId))
+                .andExpect(status().isOk());
+        expectSpent(year, 0);
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/annual-progress/{year} - 并发写入同一预算项时已支出金额不丢失")
+    void getAnnualProgress_ConcurrentWritesToSameBudget() throws Exception {
+        int year = 2031;
+        int months = 6;
+        long expenseId = createBudgetPlan(year);
+        List<Long> recordIds = new ArrayList<>();
+        for (int month = 1; month <= months; month++) {
+            String response = mockMvc.perform(post("/api/monthly-record")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(buildRecordRequest(year, month))))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            recordIds.add(objectMapper.readTree(response).path("data").path("id").asLong());
+        }
+
+        MonthlyRecordRequest.ExpenseDetailDto expenseDetail = new MonthlyRecordRequest.ExpenseDetailDto();
+        expenseDetail.setName("门票");
+        expenseDetail.setAmount(BigDecimal.ONE);
+        expenseDetail.setAnnualExpenseId(expenseId);
+        String body = objectMapper.writeValueAsString(expenseDetail);
+
+        ExecutorService executor = Executors.newFixedThreadPool(months);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (Long recordId : recordIds) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/monthly-record/" + recordId + "/expense-details")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isEqualTo(200);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        expectSpent(year, months);
+    }
+
+    @Test
+    @DisplayName("reconcile - 与并发新增的支出明细同时运行时不覆盖刚累加的差额")
+    void reconcile_ConcurrentWithLineAdds() throws Exception {
+        int year = 2036;
+        // 读改写的竞争窗口很窄，多跑几轮才能稳定暴露
+        int rounds = 300;
+        long expenseId = createBudgetPlan(year);
+        String recordResponse = mockMvc.perform(post("/api/monthly-record")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildRecordRequest(year, 1))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long recordId = objectMapper.readTree(recordResponse).path("data").path("id").asLong();
+
+        MonthlyRecordRequest.ExpenseDetailDto expenseDetail = new MonthlyRecordRequest.ExpenseDetailDto();
+        expenseDetail.setName("门票");
+        expenseDetail.setAmount(BigDecimal.ONE);
+        expenseDetail.setAnnualExpenseId(expenseId);
+        String body = objectMapper.writeValueAsString(expenseDetail);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < rounds; i++) {
+                CountDownLatch start = new CountDownLatch(1);
+                Future<Integer> add = executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/monthly-record/" + recordId + "/expense-details")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse().getStatus();
+                });
+                Future<Integer> reconcile = executor.submit(() -> {
+                    start.await();
+                    return spentAmountService.reconcile();
+                });
+                start.countDown();
+                assertThat(add.get(30, TimeUnit.SECONDS)).isEqualTo(200);
+                // 增量维护正确时核对不应发现任何不一致
+                assertThat(reconcile.get(30, TimeUnit.SECONDS)).isZero();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        expectSpent(year, rounds);
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/yearly-summary/{year} - 读取预先汇总的年度数据")
+    void getYearlySummary_FromRollup() throws Exception {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/dashboard/yearly-summary/" + YEAR))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.hasData").value(true))
+                .andExpect(jsonPath("$.data.monthCount").value(3))
+                // 年初取上一年 12 月的期末净资产（在本年记录之后写入，随下一年一起重算）
+                .andExpect(jsonPath("$.data.startNetWorth").value(-26))
+                .andExpect(jsonPath("$.data.endNetWorth").value(-44))
+                .andExpect(jsonPath("$.data.netWorthDelta").value(-18))
+                .andExpect(jsonPath("$.data.categorySpend", hasSize(4)));
+
+        // rollup row + category map
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+
+        mockMvc.perform(post("/api/data/rebuild/yearly-rollup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(greaterThanOrEqualTo(2)));
+
+        mockMvc.perform(get("/api/dashboard/yearly-summary/" + YEAR))
+                .andExpect(jsonPath("$.data.netWorthDelta").value(-18));
+        mockMvc.perform(get("/api/dashboard/yearly-summary/1999"))
+                .andExpect(jsonPath("$.data.hasData").value(false));
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/yearly-summary/{year} - 年初净资产取上一年 12 月，没有上一年记录时取当年第一条")
+    void getYearlySummary_StartsFromPreviousDecember() throws Exception {
+        int year = 2038;
+        postRecord(buildRecordRequest(year, 1));
+        postRecord(buildRecordRequest(year, 12));
+
+        mockMvc.perform(get("/api/dashboard/yearly-summary/" + year))
+                .andExpect(jsonPath("$.data.startNetWorth").value(-48))
+                .andExpect(jsonPath("$.data.endNetWorth").value(-26))
+                .andExpect(jsonPath("$.data.netWorthDelta").value(22));
+
+        // 写入上一年 12 月后，下一年的汇总也随之重算
+        MonthlyRecordRequest previousDecember = buildRecordRequest(year - 1, 12);
+        previousDecember.getAssetDetails().get(0).setAmount(BigDecimal.valueOf(60));
+        postRecord(previousDecember);
+
+        mockMvc.perform(get("/api/dashboard/yearly-summary/" + year))
+                .andExpect(jsonPath("$.data.startNetWorth").value(-28))
+                .andExpect(jsonPath("$.data.endNetWorth").value(-26))
+                .andExpect(jsonPath("$.data.netWorthDelta").value(2));
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/overview - 重复查询走缓存，写入该年份后失效")
+    void getOverview_CachedUntilYearChanges() throws Exception {
+        int year = 2029;
+        String recordResponse = mockMvc.perform(post("/api/monthly-record")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildRecordRequest(year, 1))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long recordId = objectMapper.readTree(recordResponse).path("data").path("id").asLong();
+
+        mockMvc.perform(get("/api/dashboard/annual-progress/" + YEAR)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/dashboard/overview").param("year", String.valueOf(year)).param("month", "1"))
+                .andExpect(jsonPath("$.data.totalAsset").value(51));
+        double hitsBefore = cacheRequests("hit");
+
+        Statistics statistics = statistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/dashboard/overview").param("year", String.valueOf(year)).param("month", "1"))
+                .andExpect(jsonPath("$.data.totalAsset").value(51));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(cacheRequests("hit")).isEqualTo(hitsBefore + 1);
+
+        MonthlyRecordRequest.AssetDetailDto asset = new MonthlyRecordRequest.AssetDetailDto();
+        asset.setAssetGroup(AssetGroup.LIQUID);
+        asset.setName("货币基金");
+        asset.setAmount(BigDecimal.valueOf(9));
+        mockMvc.perform(post("/api/monthly-record/" + recordId + "/asset-details")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(asset)))
+                .andExpect(status().isOk());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/dashboard/overview").param("year", String.valueOf(year)).param("month", "1"))
+                .andExpect(jsonPath("$.data.totalAsset").value(60));
+        assertThat(statistics.getPrepareStatementCount()).isPositive();
+
+        // other years stay cached
+        statistics.clear();
+        mockMvc.perform(get("/api/dashboard/annual-progress/" + YEAR)).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("写入提交后 - 拿到新 ETag 的请求不会配上写入前的缓存结果")
+    void getOverview_NewEtagNeverPairedWithStaleBody() throws Exception {
+        int year = 2035;
+        String recordResponse = mockMvc.perform(post("/api/monthly-record")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildRecordRequest(year, 1))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long recordId = objectMapper.readTree(recordResponse).path("data").path("id").asLong();
+        mockMvc.perform(get("/api/dashboard/overview").param("year", String.valueOf(year)).param("month", "1"))
+                .andExpect(jsonPath("$.data.totalAsset").value(51));
+
+        // 版本号一递增就发出一个并发 GET，这是新 ETag 最早可见的时刻
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<MvcResult> reads = new ArrayList<>();
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            reads.add(executor.submit(() -> mockMvc.perform(get("/api/dashboard/overview")
+                            .param("year", String.valueOf(year)).param("month", "1")).andReturn())
+                    .get(10, TimeUnit.SECONDS));
+            return null;
+        }).when(dataVersionService).onDataChanged(any());
+
+        MonthlyRecordRequest.AssetDetailDto asset = new MonthlyRecordRequest.AssetDetailDto();
+        asset.setAssetGroup(AssetGroup.LIQUID);
+        asset.setName("货币基金");
+        asset.setAmount(BigDecimal.valueOf(9));
+        try {
+            mockMvc.perform(post("/api/monthly-record/" + recordId + "/asset-details")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(asset)))
+                    .andExpect(status().isOk());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(reads).hasSize(1);
+        MvcResult read = reads.get(0);
+        assertThat(read.getResponse().getHeader("ETag")).isEqualTo(dataVersionService.etag(year));
+        assertThat(objectMapper.readTree(read.getResponse().getContentAsString())
+                .path("data").path("totalAsset").decimalValue()).isEqualByComparingTo("60");
+    }
+
+    private long createBudgetPlan(int year) throws Exception {
+        AnnualPlanRequest planRequest = new AnnualPlanRequest();
+        planRequest.setYear(year);
+        AnnualPlanRequest.AnnualExpenseDto expense = new AnnualPlanRequest.AnnualExpenseDto();
+        expense.setParentCategory(ExpenseCategory.LEISURE);
+        expense.setCategory("旅游");
+        expense.setBudgetAmount(BigDecimal.valueOf(10));
+        expense.setIsMonthly(false);
+        planRequest.setAnnualExpenses(List.of(expense));
+        planRequest.setAnnualIncomes(new ArrayList<>());
+        planRequest.setAssetTargets(new ArrayList<>());
+        planRequest.setLiabilityTargets(new ArrayList<>());
+
+        String planResponse = mockMvc.perform(post("/api/annual-plan")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(planRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(planResponse).path("data").path("annualExpenses").get(0).path("id").asLong();
+    }
+
+    private void expectSpent(int year, double spentAmount) throws Exception {
+        mockMvc.perform(get("/api/dashboard/annual-progress/" + year))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.budgetProgress[0].spentAmount").value(spentAmount));
+    }
+
+    private void postRecord(MonthlyRecordRequest request) throws Exception {
+        mockMvc.perform(post("/api/monthly-record")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+    }
+
+    private double cacheRequests(String result) {
+        return meterRegistry.get("finance.dashboard.cache.requests").tag("result", result).counter().count();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private MonthlyRecordRequest buildRecordRequest(int year, int month) {
+        MonthlyRecordRequest request = new MonthlyRecordRequest();
+        request.setYear(year);
+        request.setMonth(month);
+
+        MonthlyRecordRequest.AssetDetailDto asset = new MonthlyRecordRequest.AssetDetailDto();
+        asset.setAssetGroup(AssetGroup.LIQUID);
+        asset.setName("银行活期");
+        asset.setAmount(BigDecimal.valueOf(50 + month));
+        request.setAssetDetails(List.of(asset));
+
+        MonthlyRecordRequest.LiabilityDetailDto liability = new MonthlyRecordRequest.LiabilityDetailDto();
+        liability.setName("房贷");
+        liability.setAmount(BigDecimal.valueOf(100 - month));
+        request.setLiabilityDetails(List.of(liability));
+
+        request.setIncomeDetails(new ArrayList<>());
+        request.setExpenseDetails(new ArrayList<>());
+        return request;
+    }
+}
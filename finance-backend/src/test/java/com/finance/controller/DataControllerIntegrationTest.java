@@ -0,0 +1,181 @@
+package com.finance.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.dto.request.AnnualPlanRequest;
+import com.finance.dto.request.MonthlyRecordRequest;
+import com.finance.enums.AssetGroup;
+import com.finance.service.DataExportService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+class DataControllerIntegrationTest {
+
+    private static final int YEAR = 2026;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataExportService dataExportService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private boolean seeded;
+
+    @BeforeEach
+    void setup() throws Exception {
+        if (seeded) {
+            return;
+        }
+        seeded = true;
+
+        AnnualPlanRequest planRequest = new AnnualPlanRequest();
+        planRequest.setYear(YEAR);
+        AnnualPlanRequest.AssetTargetDto assetTarget = new AnnualPlanRequest.AssetTargetDto();
+        assetTarget.setAssetGroup(AssetGroup.LIQUID);
+        assetTarget.setName("活钱账户");
+        assetTarget.setTargetAmount(BigDecimal.valueOf(80));
+        planRequest.setAssetTargets(List.of(assetTarget));
+        planRequest.setLiabilityTargets(new ArrayList<>());
+        planRequest.setAnnualIncomes(new ArrayList<>());
+        planRequest.setAnnualExpenses(new ArrayList<>());
+
+        mockMvc.perform(post("/api/annual-plan")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(planRequest)))
+                .andExpect(status().isOk());
+
+        postRecord(YEAR - 1, 12, "银行活期", "房贷");
+        postRecord(YEAR, 1, "货币基金", "车贷");
+    }
+
+    @Test
+    @DisplayName("GET /api/data/export/annual-plan/{year} - 流式写出 Excel")
+    void exportAnnualPlan_Streams() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/data/export/annual-plan/" + YEAR))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(body))) {
+            assertThat(workbook.getSheet("资产目标").getRow(1).getCell(1).getStringCellValue()).isEqualTo("活钱账户");
+        }
+    }
+
+    @Test
+    @DisplayName("writeExcel - 写出工作簿时不占用数据库连接")
+    void writeExcel_ReleasesConnectionBeforeWriting() throws Exception {
+        SXSSFWorkbook workbook = dataExportService.buildMonthlyRecordsWorkbook(YEAR);
+        List<Integer> activeConnections = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void write(byte[] b, int off, int len) {
+                activeConnections.add(((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections());
+                super.write(b, off, len);
+            }
+        };
+
+        dataExportService.writeExcel(workbook, out);
+
+        assertThat(activeConnections).isNotEmpty().containsOnly(0);
+        try (Workbook written = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(written.getSheet("1月明细")).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/data/export/detail-lines/csv - 跨年份流式导出明细行")
+    void exportDetailLinesCsv_AcrossYears() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/data/export/detail-lines/csv")
+                        .param("fromYear", String.valueOf(YEAR - 1))
+                        .param("toYear", String.valueOf(YEAR)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(csv.lines()).containsExactly(
+                "\"年份\",\"月份\",\"类型\",\"分组/分类\",\"名称\",\"金额(万)\",\"备注\"",
+                "\"" + (YEAR - 1) + "\",\"12月\",\"资产\",\"活钱\",\"银行活期\",\"50.00\",\"\"",
+                "\"" + YEAR + "\",\"1月\",\"资产\",\"活钱\",\"货币基金\",\"50.00\",\"\"",
+                "\"" + (YEAR - 1) + "\",\"12月\",\"负债\",\"\",\"房贷\",\"100.00\",\"\"",
+                "\"" + YEAR + "\",\"1月\",\"负债\",\"\",\"车贷\",\"100.00\",\"\"");
+
+        mockMvc.perform(get("/api/data/export/detail-lines/csv")
+                        .param("fromYear", String.valueOf(YEAR))
+                        .param("toYear", String.valueOf(YEAR - 1)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/data/export/annual-plan/{year} - 年度规划不存在时在写出前返回 400")
+    void exportAnnualPlan_NotFound() throws Exception {
+        mockMvc.perform(get("/api/data/export/annual-plan/1999"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+    }
+
+    private void postRecord(int year, int month, String assetName, String liabilityName) throws Exception {
+        MonthlyRecordRequest request = new MonthlyRecordRequest();
+        request.setYear(year);
+        request.setMonth(month);
+
+        MonthlyRecordRequest.AssetDetailDto asset = new MonthlyRecordRequest.AssetDetailDto();
+        asset.setAssetGroup(AssetGroup.LIQUID);
+        asset.setName(assetName);
+        asset.setAmount(BigDecimal.valueOf(50));
+        request.setAssetDetails(List.of(asset));
+
+        MonthlyRecordRequest.LiabilityDetailDto liability = new MonthlyRecordRequest.LiabilityDetailDto();
+        liability.setName(liabilityName);
+        liability.setAmount(BigDecimal.valueOf(100));
+        request.setLiabilityDetails(List.of(liability));
+
+        request.setIncomeDetails(new ArrayList<>());
+        request.setExpenseDetails(new ArrayList<>());
+
+        mockMvc.perform(post("/api/monthly-record")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+    }
+}
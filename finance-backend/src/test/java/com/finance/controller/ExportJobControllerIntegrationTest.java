@@ -0,0 +1,136 @@
+package com.finance.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.dto.request.AnnualPlanRequest;
+import com.finance.dto.request.ExportJobRequest;
+import com.finance.enums.AssetGroup;
+import com.finance.enums.ExportJobType;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+class ExportJobControllerIntegrationTest {
+
+    private static final int YEAR = 2026;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private boolean seeded;
+
+    @BeforeEach
+    void setup() throws Exception {
+        if (seeded) {
+            return;
+        }
+        seeded = true;
+
+        AnnualPlanRequest planRequest = new AnnualPlanRequest();
+        planRequest.setYear(YEAR);
+        AnnualPlanRequest.AssetTargetDto assetTarget = new AnnualPlanRequest.AssetTargetDto();
+        assetTarget.setAssetGroup(AssetGroup.LIQUID);
+        assetTarget.setName("活钱账户");
+        assetTarget.setTargetAmount(BigDecimal.valueOf(80));
+        planRequest.setAssetTargets(List.of(assetTarget));
+        planRequest.setLiabilityTargets(new ArrayList<>());
+        planRequest.setAnnualIncomes(new ArrayList<>());
+        planRequest.setAnnualExpenses(new ArrayList<>());
+
+        mockMvc.perform(post("/api/annual-plan")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(planRequest)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("POST /api/data/export-jobs - 后台导出年度规划，轮询完成后下载")
+    void submitPollAndDownload() throws Exception {
+        String response = mockMvc.perform(post("/api/data/export-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request(ExportJobType.ANNUAL_PLAN, YEAR))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.filename").value(YEAR + "年度规划.xlsx"))
+                .andReturn().getResponse().getContentAsString();
+        String id = objectMapper.readTree(response).path("data").path("id").asText();
+
+        JsonNode job = null;
+        for (int i = 0; i < 100; i++) {
+            String status = mockMvc.perform(get("/api/data/export-jobs/" + id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            job = objectMapper.readTree(status).path("data");
+            if (job.hasNonNull("finishedAt")) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        assertThat(job.path("status").asText()).isEqualTo("SUCCEEDED");
+        assertThat(job.path("progress").asInt()).isEqualTo(100);
+
+        byte[] body = mockMvc.perform(get("/api/data/export-jobs/" + id + "/file"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(body))) {
+            assertThat(workbook.getSheet("资产目标").getRow(1).getCell(1).getStringCellValue()).isEqualTo("活钱账户");
+        }
+
+        mockMvc.perform(post("/api/data/export-jobs/" + id + "/cancel"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/data/export-jobs - 参数不合法时返回 400")
+    void submit_Invalid() throws Exception {
+        mockMvc.perform(post("/api/data/export-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request(ExportJobType.ANNUAL_PLAN, 1999))))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/data/export-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request(null, YEAR))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/data/export-jobs/{id} - 任务不存在时返回 404")
+    void getStatus_NotFound() throws Exception {
+        mockMvc.perform(get("/api/data/export-jobs/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ExportJobRequest request(ExportJobType type, Integer year) {
+        ExportJobRequest request = new ExportJobRequest();
+        request.setType(type);
+        request.setYear(year);
+        return request;
+    }
+}
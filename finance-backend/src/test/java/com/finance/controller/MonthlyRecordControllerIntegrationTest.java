@@ -1,11 +1,16 @@
 package com.finance.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.finance.dto.request.AnnualPlanRequest;
 import com.finance.dto.request.MonthlyRecordRequest;
+import com.finance.entity.MonthlyRecord;
 import com.finance.enums.AssetGroup;
 import com.finance.enums.IncomeType;
-import org.junit.jupiter.api.BeforeAll;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -20,9 +25,16 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,10 +52,17 @@ class MonthlyRecordControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Long annualExpenseId;
 
-    @BeforeAll
+    @BeforeEach
     void setup() throws Exception {
+        if (annualExpenseId != null) {
+            return;
+        }
+
         // Create annual plan first to get annualExpenseId
         AnnualPlanRequest planRequest = new AnnualPlanRequest();
         planRequest.setYear(2026);
@@ -225,6 +244,278 @@ class MonthlyRecordControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @Order(11)
+    @DisplayName("GET /api/monthly-record/list - 明细集合批量加载，查询次数与月份数无关")
+    void getMonthlyRecordsByYear_BatchFetchDetails() throws Exception {
+        for (int month = 1; month <= 6; month++) {
+            mockMvc.perform(post("/api/monthly-record")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(buildTestRequest(2027, month))))
+                    .andExpect(status().isOk());
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/monthly-record/list").param("year", "2027"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(6)))
+                .andExpect(jsonPath("$.data[5].assetDetails", hasSize(1)))
+                .andExpect(jsonPath("$.data[5].expenseDetails", hasSize(1)));
+
+        // records + one batch per detail collection + one batch of annual expenses
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("POST /api/monthly-record - 明细行批量插入")
+    void createMonthlyRecord_BatchInsertsDetails() throws Exception {
+        MonthlyRecordRequest request = buildTestRequest(2028, 1);
+        List<MonthlyRecordRequest.AssetDetailDto> assets = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            MonthlyRecordRequest.AssetDetailDto asset = new MonthlyRecordRequest.AssetDetailDto();
+            asset.setAssetGroup(AssetGroup.INVESTMENT);
+            asset.setName("基金" + i);
+            asset.setAmount(BigDecimal.ONE);
+            asset.setSortOrder(i);
+            assets.add(asset);
+        }
+        request.setAssetDetails(assets);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post("/api/monthly-record")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalAsset").value(30))
+                .andExpect(jsonPath("$.data.assetDetails", hasSize(30)));
+
+        assertThat(statistics.getEntityInsertCount()).isGreaterThanOrEqualTo(34);
+        // one prepared statement per table, not per line
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(30);
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("PUT /api/monthly-record/{id} - 只改一行金额时不删除重建明细")
+    void updateMonthlyRecord_MergesDetailsById() throws Exception {
+        String response = mockMvc.perform(get("/api/monthly-record/2028/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        JsonNode data = objectMapper.readTree(response).path("data");
+        long recordId = data.path("id").asLong();
+        MonthlyRecordRequest request = objectMapper.treeToValue(data, MonthlyRecordRequest.class);
+        request.getAssetDetails().get(3).setAmount(BigDecimal.valueOf(5));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(put("/api/monthly-record/" + recordId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalAsset").value(34))
+                .andExpect(jsonPath("$.data.assetDetails", hasSize(30)))
+                .andExpect(jsonPath("$.data.assetDetails[3].id").value(request.getAssetDetails().get(3).getId()));
+
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+        // the changed line, the record totals and the yearly rollup
+        assertThat(statistics.getEntityUpdateCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("POST/PATCH/DELETE /api/monthly-record/{id}/income-details - 单行增删改按差额更新汇总")
+    void incomeDetails_LineLevelEdits() throws Exception {
+        String response = mockMvc.perform(get("/api/monthly-record/2028/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        long recordId = objectMapper.readTree(response).path("data").path("id").asLong();
+
+        MonthlyRecordRequest.IncomeDetailDto income = new MonthlyRecordRequest.IncomeDetailDto();
+        income.setName("奖金");
+        income.setAmount(BigDecimal.valueOf(1.5));
+        income.setSortOrder(1);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        String added = mockMvc.perform(post("/api/monthly-record/" + recordId + "/income-details")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(income)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.detail.name").value("奖金"))
+                .andExpect(jsonPath("$.data.totalIncome").value(4.0))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        long detailId = objectMapper.readTree(added).path("data").path("detail").path("id").asLong();
+
+        // no detail collection is loaded for a single-line edit
+        for (String details : List.of("assetDetails", "liabilityDetails", "incomeDetails", "expenseDetails")) {
+            assertThat(statistics.getCollectionStatistics(MonthlyRecord.class.getName() + "." + details).getLoadCount()).isZero();
+        }
+
+        income.setAmount(BigDecimal.valueOf(0.5));
+        mockMvc.perform(patch("/api/monthly-record/" + recordId + "/income-details/" + detailId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(income)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.detail.amount").value(0.5))
+                .andExpect(jsonPath("$.data.totalIncome").value(3.0));
+
+        mockMvc.perform(delete("/api/monthly-record/" + recordId + "/income-details/" + detailId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalIncome").value(2.5));
+
+        mockMvc.perform(delete("/api/monthly-record/" + recordId + "/income-details/" + detailId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/monthly-record/2028/1"))
+                .andExpect(jsonPath("$.data.incomeDetails", hasSize(1)))
+                .andExpect(jsonPath("$.data.totalIncome").value(2.5));
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("DELETE /api/monthly-record/year/{year} - 按年批量清除，语句数与明细行数无关")
+    void deleteByYear_BulkPurge() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(delete("/api/monthly-record/year/2027"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(6));
+
+        // ids + spent sums + budget items + four detail tables + records + rollup refresh of this and the next year
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(18);
+        assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(2);
+
+        mockMvc.perform(get("/api/monthly-record/list").param("year", "2027"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(0)));
+        mockMvc.perform(delete("/api/monthly-record/year/2027"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(0));
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("GET /api/monthly-record/{year}/{month} - If-None-Match 命中返回 304，写入该年份后返回新内容")
+    void getByYearAndMonth_ConditionalGet() throws Exception {
+        String etag = mockMvc.perform(get("/api/monthly-record/2028/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/monthly-record/2028/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        // 其他年份的写入不影响
+        mockMvc.perform(post("/api/monthly-record")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildTestRequest(2031, 5))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/monthly-record/2028/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        long recordId = objectMapper.readTree(mockMvc.perform(get("/api/monthly-record/2028/1"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8)).path("data").path("id").asLong();
+        MonthlyRecordRequest.IncomeDetailDto income = new MonthlyRecordRequest.IncomeDetailDto();
+        income.setName("利息");
+        income.setAmount(BigDecimal.valueOf(0.1));
+        mockMvc.perform(post("/api/monthly-record/" + recordId + "/income-details")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(income)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/monthly-record/2028/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    @Order(17)
+    @DisplayName("GET /api/monthly-record/years - 年份列表缓存到下一次写入")
+    void getAvailableYears_CachedUntilWrite() throws Exception {
+        mockMvc.perform(get("/api/monthly-record/years"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasItems(2028, 2031)))
+                .andExpect(jsonPath("$.data", not(hasItem(2027))));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/monthly-record/years"))
+                .andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        mockMvc.perform(post("/api/monthly-record")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildTestRequest(2033, 2))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/monthly-record/years"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasItem(2033)));
+    }
+
+    @Test
+    @Order(18)
+    @DisplayName("POST /api/monthly-record/{id}/income-details - 并发写同一条记录时冲突返回 409，汇总与明细一致")
+    void incomeDetails_ConcurrentWritesKeepTotalsConsistent() throws Exception {
+        String created = mockMvc.perform(post("/api/monthly-record")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildTestRequest(2034, 1))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        long recordId = objectMapper.readTree(created).path("data").path("id").asLong();
+
+        MonthlyRecordRequest.IncomeDetailDto income = new MonthlyRecordRequest.IncomeDetailDto();
+        income.setName("兼职");
+        income.setAmount(BigDecimal.ONE);
+        String body = objectMapper.writeValueAsString(income);
+
+        int writers = 6;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/monthly-record/" + recordId + "/income-details")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                statuses.add(result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(statuses).contains(200).allMatch(status -> status == 200 || status == 409);
+
+        JsonNode record = objectMapper.readTree(mockMvc.perform(get("/api/monthly-record/2034/1"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8)).path("data");
+        BigDecimal lineSum = BigDecimal.ZERO;
+        for (JsonNode line : record.path("incomeDetails")) {
+            lineSum = lineSum.add(line.path("amount").decimalValue());
+        }
+        assertThat(record.path("totalIncome").decimalValue()).isEqualByComparingTo(lineSum);
+        long succeeded = statuses.stream().filter(status -> status == 200).count();
+        assertThat(record.path("incomeDetails").size()).isEqualTo(1 + (int) succeeded);
+    }
+
     private MonthlyRecordRequest buildTestRequest(int year, int month) {
         MonthlyRecordRequest request = new MonthlyRecordRequest();
         request.setYear(year);
@@ -0,0 +1,33 @@
+package com.finance.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测试用：记录当前线程上 Hibernate 实际发出的 SQL，用来对真实语句做 EXPLAIN
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        CAPTURED.get().add(sql);
+        return sql;
+    }
+
+    /**
+     * 执行一次仓库调用，返回它发出的唯一一条 SQL
+     */
+    static String capture(Runnable call) {
+        List<String> captured = CAPTURED.get();
+        captured.clear();
+        call.run();
+        if (captured.size() != 1) {
+            throw new AssertionError("期望一条 SQL，实际为: " + captured);
+        }
+        return captured.remove(0);
+    }
+}
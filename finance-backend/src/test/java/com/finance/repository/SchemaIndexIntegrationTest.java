@@ -0,0 +1,113 @@
+package com.finance.repository;
+
+import com.finance.enums.AssetGroup;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static com.finance.repository.CapturingStatementInspector.capture;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 对仓库方法实际生成的 SQL 做 EXPLAIN，而不是手写等价语句
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.finance.repository.CapturingStatementInspector")
+class SchemaIndexIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MonthlyAssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private MonthlyLiabilityDetailRepository liabilityDetailRepository;
+
+    @Autowired
+    private MonthlyIncomeDetailRepository incomeDetailRepository;
+
+    @Autowired
+    private MonthlyExpenseDetailRepository expenseDetailRepository;
+
+    @Autowired
+    private AnnualExpenseRepository annualExpenseRepository;
+
+    @Autowired
+    private AnnualIncomeRepository annualIncomeRepository;
+
+    @Autowired
+    private AssetTargetRepository assetTargetRepository;
+
+    @Autowired
+    private LiabilityTargetRepository liabilityTargetRepository;
+
+    @Test
+    @DisplayName("明细按记录读取 - 走 monthly_record_id 索引而不是全表扫描")
+    void detailsByRecord_UseRecordIndex() {
+        for (Runnable call : List.<Runnable>of(
+                () -> assetDetailRepository.findByMonthlyRecordIdOrderBySortOrder(1L),
+                () -> liabilityDetailRepository.findByMonthlyRecordIdOrderBySortOrder(1L),
+                () -> incomeDetailRepository.findByMonthlyRecordIdOrderBySortOrder(1L),
+                () -> expenseDetailRepository.findByMonthlyRecordIdOrderBySortOrder(1L))) {
+            assertThat(explain(capture(call), 1L))
+                    .contains("MONTHLY_RECORD_ID = ")
+                    .doesNotContain("tableScan");
+        }
+        assertThat(indexColumns("MONTHLY_INCOME_DETAIL", "IDX_INCOME_DETAIL_RECORD_SORT"))
+                .containsExactly("MONTHLY_RECORD_ID", "SORT_ORDER");
+    }
+
+    @Test
+    @DisplayName("按预算项汇总支出 - 使用 annual_expense_id 索引")
+    void spentByAnnualExpense_UsesAnnualExpenseIndex() {
+        assertThat(explain(capture(() -> expenseDetailRepository.sumAmountByAnnualExpenseId(1L)), 1L))
+                .contains("IDX_EXPENSE_DETAIL_ANNUAL_EXPENSE")
+                .doesNotContain("tableScan");
+        assertThat(explain(capture(() -> expenseDetailRepository.findByAnnualExpenseId(1L)), 1L))
+                .contains("IDX_EXPENSE_DETAIL_ANNUAL_EXPENSE")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("按资产分组汇总 - 使用覆盖索引 (monthly_record_id, asset_group, amount)")
+    void assetGroupSum_UsesCoveringIndex() {
+        assertThat(explain(capture(() -> assetDetailRepository.sumAmountByRecordIdAndGroup(1L, AssetGroup.LIQUID)),
+                1L, AssetGroup.LIQUID.name()))
+                .contains("IDX_ASSET_DETAIL_RECORD_GROUP")
+                .doesNotContain("tableScan");
+        assertThat(explain(capture(() -> assetDetailRepository.sumAmountGroupByAssetGroup(2026, 1)), 2026, 1))
+                .contains("IDX_ASSET_DETAIL_RECORD_GROUP")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("年度规划子表按规划读取 - 走 annual_plan_id 索引而不是全表扫描")
+    void planChildren_UsePlanIndex() {
+        for (Runnable call : List.<Runnable>of(
+                () -> annualExpenseRepository.findByAnnualPlanIdOrderBySortOrder(1L),
+                () -> annualIncomeRepository.findByAnnualPlanIdOrderBySortOrder(1L),
+                () -> assetTargetRepository.findByAnnualPlanIdOrderBySortOrder(1L),
+                () -> liabilityTargetRepository.findByAnnualPlanIdOrderBySortOrder(1L))) {
+            assertThat(explain(capture(call), 1L))
+                    .contains("ANNUAL_PLAN_ID = ")
+                    .doesNotContain("tableScan");
+        }
+        assertThat(indexColumns("ANNUAL_EXPENSE", "IDX_ANNUAL_EXPENSE_PLAN_SORT"))
+                .containsExactly("ANNUAL_PLAN_ID", "SORT_ORDER");
+    }
+
+    private String explain(String sql, Object... args) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args);
+    }
+
+    private List<String> indexColumns(String table, String index) {
+        return jdbcTemplate.queryForList(
+                "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS " +
+                "WHERE TABLE_NAME = ? AND INDEX_NAME = ? ORDER BY ORDINAL_POSITION",
+                String.class, table, index);
+    }
+}
@@ -14,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -33,6 +34,12 @@ class AnnualPlanServiceTest {
     @Mock
     private MonthlyExpenseDetailRepository monthlyExpenseDetailRepository;
 
+    @Mock
+    private YearlyRollupService yearlyRollupService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AnnualPlanService annualPlanService;
 
@@ -117,6 +124,27 @@ class AnnualPlanServiceTest {
         verify(annualPlanRepository).findByYear(2026);
     }
 
+    @Test
+    @DisplayName("getByYear - 直接读取已维护的已支出金额，不做汇总查询")
+    void getByYear_SpentAmountsFromStoredColumn() {
+        testPlan.getAnnualExpenses().get(0).setSpentAmount(BigDecimal.valueOf(3.5));
+        when(annualPlanRepository.findByYear(2026)).thenReturn(Optional.of(testPlan));
+
+        AnnualPlanResponse response = annualPlanService.getByYear(2026);
+
+        assertThat(response.getAnnualExpenses().get(0).getSpentAmount()).isEqualByComparingTo(BigDecimal.valueOf(3.5));
+        verifyNoInteractions(monthlyExpenseDetailRepository);
+    }
+
+    @Test
+    @DisplayName("getAvailableYears - 只查询年份列，不加载规划实体")
+    void getAvailableYears_ProjectionOnly() {
+        when(annualPlanRepository.findDistinctYears()).thenReturn(List.of(2025, 2026));
+
+        assertThat(annualPlanService.getAvailableYears()).containsExactly(2025, 2026);
+        verify(annualPlanRepository, never()).findAll();
+    }
+
     @Test
     @DisplayName("getByYear - 年度规划不存在抛出异常")
     void getByYear_NotFound() {
@@ -127,6 +155,21 @@ class AnnualPlanServiceTest {
                 .hasMessageContaining("2026");
     }
 
+    @Test
+    @DisplayName("getSummary - 只计算派生值，不写回数据库")
+    void getSummary_DoesNotSave() {
+        testPlan.getAnnualExpenses().get(0).setSpentAmount(BigDecimal.valueOf(2));
+        when(annualPlanRepository.findByYear(2026)).thenReturn(Optional.of(testPlan));
+
+        AnnualPlanResponse response = annualPlanService.getSummary(2026);
+
+        // Monthly surplus = monthly income 2.5 - monthly expense 5 = -2.5
+        assertThat(response.getMonthlySurplus()).isEqualByComparingTo(BigDecimal.valueOf(-2.5));
+        assertThat(response.getAnnualSurplus()).isEqualByComparingTo(BigDecimal.valueOf(-30));
+        assertThat(response.getAnnualExpenses().get(0).getSpentAmount()).isEqualByComparingTo(BigDecimal.valueOf(2));
+        verify(annualPlanRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("createOrUpdate - 创建新年度规划")
     void createOrUpdate_CreateNew() {
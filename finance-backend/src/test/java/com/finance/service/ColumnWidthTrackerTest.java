@@ -0,0 +1,54 @@
+package com.finance.service;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ColumnWidthTrackerTest {
+
+    @Test
+    @DisplayName("displayWidth - 中文和全角字符按两个宽度计算")
+    void displayWidth_CountsCjkAsDouble() {
+        assertThat(ColumnWidthTracker.displayWidth("资产明细")).isEqualTo(8);
+        assertThat(ColumnWidthTracker.displayWidth("金额(万)")).isEqualTo(8);
+        assertThat(ColumnWidthTracker.displayWidth("金额（万）")).isEqualTo(10);
+        assertThat(ColumnWidthTracker.displayWidth("Total 12")).isEqualTo(8);
+        assertThat(ColumnWidthTracker.displayWidth("")).isZero();
+    }
+
+    @Test
+    @DisplayName("applyTo - 每列取所有行中的最大宽度，按显示格式计算数字")
+    void applyTo_UsesMaxWidthPerColumn() throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("测试");
+            CellStyle moneyStyle = workbook.createCellStyle();
+            moneyStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+            ColumnWidthTracker widths = new ColumnWidthTracker();
+
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("资产明细");
+            header.createCell(1).setCellValue("金额");
+            widths.track(header);
+
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("a");
+            row.createCell(1).setCellValue(1234567.5);
+            row.getCell(1).setCellStyle(moneyStyle);
+            row.createCell(3).setCellValue("这是一段很长很长很长很长很长很长很长很长很长很长很长很长很长很长很长的备注");
+            widths.track(row);
+
+            widths.applyTo(sheet);
+
+            assertThat(sheet.getColumnWidth(0)).isEqualTo((8 + 2) * 256);
+            // "1,234,567.50"
+            assertThat(sheet.getColumnWidth(1)).isEqualTo((12 + 2) * 256);
+            // 超长文本封顶
+            assertThat(sheet.getColumnWidth(3)).isEqualTo(60 * 256);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.finance.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashboardCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DashboardCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new DashboardCache(3, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("get - 命中后不再加载，并记录命中/未命中次数")
+    void get_CachesLoadedValue() {
+        assertThat(cache.get("overview", 2026, 1, this::load)).isEqualTo(1);
+        assertThat(cache.get("overview", 2026, 1, this::load)).isEqualTo(1);
+        assertThat(cache.get("overview", 2026, 2, this::load)).isEqualTo(2);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("miss")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("get - 超过容量时淘汰最久未访问的条目")
+    void get_EvictsLeastRecentlyUsed() {
+        cache.get("overview", 2026, 1, this::load);
+        cache.get("overview", 2026, 2, this::load);
+        cache.get("overview", 2026, 3, this::load);
+        cache.get("overview", 2026, 1, this::load);
+        cache.get("overview", 2026, 4, this::load);
+
+        assertThat(cache.size()).isEqualTo(3);
+        cache.get("overview", 2026, 1, this::load);
+        assertThat(loads.get()).isEqualTo(4);
+        cache.get("overview", 2026, 2, this::load);
+        assertThat(loads.get()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("onDataChanged - 只清掉受影响年份和不分年份的条目")
+    void onDataChanged_EvictsAffectedYears() {
+        cache.get("annual-progress", 2025, null, this::load);
+        cache.get("annual-progress", 2026, null, this::load);
+        cache.get("yearly-summary", null, null, this::load);
+
+        cache.onDataChanged(DataChangedEvent.annualPlan(2026));
+
+        assertThat(cache.size()).isEqualTo(1);
+        cache.get("annual-progress", 2025, null, this::load);
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("finance.dashboard.cache.evictions").counter().count()).isEqualTo(2);
+
+        cache.onDataChanged(DataChangedEvent.all());
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("get - 加载期间发生失效时不缓存结果")
+    void get_SkipsStoreWhenInvalidatedDuringLoad() {
+        cache.get("overview", 2026, 1, () -> {
+            cache.onDataChanged(DataChangedEvent.monthlyRecords(2026));
+            return load();
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    private Integer load() {
+        return loads.incrementAndGet();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("finance.dashboard.cache.requests").tag("result", result).counter().count();
+    }
+}
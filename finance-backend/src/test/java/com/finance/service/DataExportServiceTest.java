@@ -0,0 +1,200 @@
+package com.finance.service;
+
+import com.finance.entity.*;
+import com.finance.enums.AssetGroup;
+import com.finance.enums.IncomeType;
+import com.finance.repository.*;
+import com.finance.repository.projection.DetailLineView;
+import com.finance.repository.projection.MonthlyTotalsView;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataExportServiceTest {
+
+    @Mock
+    private AnnualBalancePlanRepository annualPlanRepository;
+
+    @Mock
+    private MonthlyRecordRepository monthlyRecordRepository;
+
+    @Mock
+    private MonthlyAssetDetailRepository assetDetailRepository;
+
+    @Mock
+    private MonthlyLiabilityDetailRepository liabilityDetailRepository;
+
+    @Mock
+    private MonthlyIncomeDetailRepository incomeDetailRepository;
+
+    @Mock
+    private MonthlyExpenseDetailRepository expenseDetailRepository;
+
+    @InjectMocks
+    private DataExportService dataExportService;
+
+    @Test
+    @DisplayName("buildAnnualPlanWorkbook - 生成四个工作表")
+    void buildAnnualPlanWorkbook_WritesSheets() throws Exception {
+        AnnualBalancePlan plan = new AnnualBalancePlan();
+        plan.setYear(2026);
+        AnnualIncome income = new AnnualIncome();
+        income.setIncomeType(IncomeType.SALARY);
+        income.setName("工资");
+        income.setAmount(BigDecimal.valueOf(2.5));
+        income.setIsMonthly(true);
+        plan.addAnnualIncome(income);
+        when(annualPlanRepository.findByYear(2026)).thenReturn(Optional.of(plan));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dataExportService.writeExcel(dataExportService.buildAnnualPlanWorkbook(2026), out);
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(workbook.getNumberOfSheets()).isEqualTo(4);
+            Sheet incomeSheet = workbook.getSheet("年度收入");
+            assertThat(incomeSheet.getRow(1).getCell(1).getStringCellValue()).isEqualTo("工资");
+            assertThat(incomeSheet.getRow(1).getCell(2).getNumericCellValue()).isEqualTo(2.5);
+        }
+    }
+
+    @Test
+    @DisplayName("buildMonthlyRecordsWorkbook - 超过内存窗口的行也完整写出")
+    void buildMonthlyRecordsWorkbook_RowsBeyondWindow() throws Exception {
+        MonthlyRecord record = new MonthlyRecord();
+        record.setYear(2026);
+        record.setMonth(1);
+        for (int i = 0; i < 300; i++) {
+            MonthlyAssetDetail asset = new MonthlyAssetDetail();
+            asset.setAssetGroup(AssetGroup.LIQUID);
+            asset.setName("账户" + i);
+            asset.setAmount(BigDecimal.valueOf(i));
+            record.addAssetDetail(asset);
+        }
+        when(monthlyRecordRepository.findByYearOrderByMonthAsc(2026)).thenReturn(List.of(record));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dataExportService.writeExcel(dataExportService.buildMonthlyRecordsWorkbook(2026), out);
+
+        verify(monthlyRecordRepository, never()).findTotalsByYear(any());
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet monthSheet = workbook.getSheet("1月明细");
+            // 标题行 + 列头 + 300 行资产，第一条在第 3 行
+            assertThat(monthSheet.getRow(2).getCell(1).getStringCellValue()).isEqualTo("账户0");
+            assertThat(monthSheet.getRow(301).getCell(1).getStringCellValue()).isEqualTo("账户299");
+            // 第 2 列最宽的是负债等分区的列头 "金额(万)"（中文算两个宽度），再加留白
+            assertThat(monthSheet.getColumnWidth(1)).isEqualTo((8 + 2) * 256);
+            // 汇总页直接取自已加载的记录，不再额外查询
+            assertThat(workbook.getSheet("月度汇总").getRow(1).getCell(0).getStringCellValue()).isEqualTo("1月");
+        }
+    }
+
+    @Test
+    @DisplayName("exportDetailLinesToCsv - 逐年写出四类明细、关闭查询流并按年报告进度")
+    void exportDetailLinesToCsv_StreamsAllTypes() {
+        Stream<DetailLineView> assetLines = Stream.of(line(2025, 12, "LIQUID", "银行活期", "50", ""));
+        Stream<DetailLineView> expenseLines = Stream.of(line(2026, 1, "旅游", "机票", "0.3", "春节"));
+        boolean[] closed = new boolean[1];
+        when(assetDetailRepository.streamLinesBetween(2025, 2025)).thenReturn(assetLines.onClose(() -> closed[0] = true));
+        when(assetDetailRepository.streamLinesBetween(2026, 2026)).thenReturn(Stream.empty());
+        when(expenseDetailRepository.streamLinesBetween(2025, 2025)).thenReturn(Stream.empty());
+        when(expenseDetailRepository.streamLinesBetween(2026, 2026)).thenReturn(expenseLines);
+        List<String> progress = new ArrayList<>();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dataExportService.exportDetailLinesToCsv(2025, 2026, out, (done, total) -> progress.add(done + "/" + total));
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).containsExactly(
+                "\"年份\",\"月份\",\"类型\",\"分组/分类\",\"名称\",\"金额(万)\",\"备注\"",
+                "\"2025\",\"12月\",\"资产\",\"活钱\",\"银行活期\",\"50\",\"\"",
+                "\"2026\",\"1月\",\"支出\",\"旅游\",\"机票\",\"0.3\",\"春节\"");
+        assertThat(closed[0]).isTrue();
+        assertThat(progress).containsExactly("1/8", "2/8", "3/8", "4/8", "5/8", "6/8", "7/8", "8/8");
+        verify(liabilityDetailRepository).streamLinesBetween(2025, 2025);
+        verify(liabilityDetailRepository).streamLinesBetween(2026, 2026);
+    }
+
+    @Test
+    @DisplayName("exportDetailLinesToCsv - 取消在当年写完后生效，不再读后面的年份")
+    void exportDetailLinesToCsv_CancelAfterYear() {
+        assertThatThrownBy(() -> dataExportService.exportDetailLinesToCsv(2000, 2029, new ByteArrayOutputStream(),
+                (done, total) -> {
+                    throw new CancellationException();
+                }))
+                .hasCauseInstanceOf(CancellationException.class);
+
+        verify(assetDetailRepository).streamLinesBetween(2000, 2000);
+        verify(assetDetailRepository, never()).streamLinesBetween(2001, 2001);
+        verifyNoInteractions(liabilityDetailRepository);
+    }
+
+    @Test
+    @DisplayName("exportMonthlyRecordsToCsv - 每写出一个月份报告一次进度")
+    void exportMonthlyRecordsToCsv_ReportsProgressPerMonth() {
+        when(monthlyRecordRepository.streamTotalsBetween(2026, 1, 2026, 12))
+                .thenReturn(Stream.of(totals(1, "50", "20"), totals(3, "60", "20")));
+        List<String> progress = new ArrayList<>();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dataExportService.exportMonthlyRecordsToCsv(2026, out, (done, total) -> progress.add(done + "/" + total));
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).containsExactly(
+                "\"月份\",\"总资产\",\"总负债\",\"净资产\",\"总收入\",\"总支出\",\"结余\"",
+                "\"1月\",\"50\",\"20\",\"30\",\"0\",\"0\",\"0\"",
+                "\"3月\",\"60\",\"20\",\"40\",\"0\",\"0\",\"0\"");
+        assertThat(progress).containsExactly("1/12", "3/12", "12/12");
+    }
+
+    @Test
+    @DisplayName("checkAnnualPlanExists - 年度规划不存在抛出异常")
+    void checkAnnualPlanExists_NotFound() {
+        when(annualPlanRepository.existsByYear(2026)).thenReturn(false);
+
+        assertThatThrownBy(() -> dataExportService.checkAnnualPlanExists(2026))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("2026");
+    }
+
+    private MonthlyTotalsView totals(int month, String asset, String liability) {
+        return new MonthlyTotalsView() {
+            public Integer getYear() { return 2026; }
+            public Integer getMonth() { return month; }
+            public BigDecimal getTotalAsset() { return new BigDecimal(asset); }
+            public BigDecimal getTotalLiability() { return new BigDecimal(liability); }
+            public BigDecimal getTotalIncome() { return BigDecimal.ZERO; }
+            public BigDecimal getTotalExpense() { return BigDecimal.ZERO; }
+        };
+    }
+
+    private DetailLineView line(int year, int month, String category, String name, String amount, String remark) {
+        return new DetailLineView() {
+            public Integer getYear() { return year; }
+            public Integer getMonth() { return month; }
+            public String getCategory() { return category; }
+            public String getName() { return name; }
+            public BigDecimal getAmount() { return new BigDecimal(amount); }
+            public String getRemark() { return remark; }
+        };
+    }
+}
@@ -0,0 +1,245 @@
+package com.finance.service;
+
+import com.finance.dto.request.ExportJobRequest;
+import com.finance.dto.response.ExportJobResponse;
+import com.finance.enums.ExportJobStatus;
+import com.finance.enums.ExportJobType;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportJobServiceTest {
+
+    @Mock
+    private DataExportService dataExportService;
+
+    @TempDir
+    private Path spoolDir;
+
+    private ExportJobService exportJobService;
+
+    @AfterEach
+    void tearDown() {
+        if (exportJobService != null) {
+            exportJobService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("submit - 后台写出到 spool 目录，完成后可以下载")
+    void submit_WritesResultFile() throws Exception {
+        exportJobService = newService(1, 10, Duration.ofHours(1));
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            ExportProgress progress = invocation.getArgument(2);
+            out.write("月份".getBytes(StandardCharsets.UTF_8));
+            progress.update(1, 1);
+            return null;
+        }).when(dataExportService).exportMonthlyRecordsToCsv(eq(2026), any(), any());
+
+        ExportJobResponse submitted = exportJobService.submit(request(ExportJobType.MONTHLY_RECORDS_CSV, 2026));
+        assertThat(submitted.getFilename()).isEqualTo("2026年月度汇总.csv");
+
+        ExportJobResponse finished = awaitFinished(submitted.getId());
+        assertThat(finished.getStatus()).isEqualTo(ExportJobStatus.SUCCEEDED);
+        assertThat(finished.getProgress()).isEqualTo(100);
+        assertThat(finished.getExpiresAt()).isEqualTo(finished.getFinishedAt().plusHours(1));
+
+        ExportJobService.ResultFile file = exportJobService.getResultFile(submitted.getId());
+        assertThat(file.path().getParent()).isEqualTo(spoolDir);
+        assertThat(Files.readString(file.path(), StandardCharsets.UTF_8)).isEqualTo("月份");
+        assertThat(spoolDir.resolve(submitted.getId() + ".part")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("submit - 年度规划不存在时直接拒绝，不排队")
+    void submit_AnnualPlanNotFound() {
+        exportJobService = newService(1, 10, Duration.ofHours(1));
+        doThrow(new IllegalArgumentException("未找到1999年的年度规划")).when(dataExportService).checkAnnualPlanExists(1999);
+
+        assertThatThrownBy(() -> exportJobService.submit(request(ExportJobType.ANNUAL_PLAN, 1999)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(dataExportService, never()).buildAnnualPlanWorkbook(any(), any());
+    }
+
+    @Test
+    @DisplayName("submit - 明细导出的年份区间颠倒时拒绝")
+    void submit_InvalidYearRange() {
+        exportJobService = newService(1, 10, Duration.ofHours(1));
+        ExportJobRequest request = new ExportJobRequest();
+        request.setType(ExportJobType.DETAIL_LINES_CSV);
+        request.setFromYear(2026);
+        request.setToYear(2025);
+
+        assertThatThrownBy(() -> exportJobService.submit(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("起始年份不能晚于结束年份");
+    }
+
+    @Test
+    @DisplayName("submit - 队列已满时拒绝新任务")
+    void submit_QueueFull() throws Exception {
+        exportJobService = newService(1, 1, Duration.ofHours(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockExport(started, release);
+
+        exportJobService.submit(request(ExportJobType.MONTHLY_RECORDS, 2026));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        exportJobService.submit(request(ExportJobType.MONTHLY_RECORDS, 2026));
+
+        assertThatThrownBy(() -> exportJobService.submit(request(ExportJobType.MONTHLY_RECORDS, 2026)))
+                .isInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("cancel - 导出中的任务在下一个进度点停下并删除半成品")
+    void cancel_RunningJob() throws Exception {
+        exportJobService = newService(1, 10, Duration.ofHours(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockExport(started, release);
+
+        ExportJobResponse running = exportJobService.submit(request(ExportJobType.MONTHLY_RECORDS, 2026));
+        ExportJobResponse queued = exportJobService.submit(request(ExportJobType.MONTHLY_RECORDS, 2026));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(exportJobService.cancel(running.getId()).getStatus()).isEqualTo(ExportJobStatus.CANCELLED);
+        assertThat(exportJobService.cancel(queued.getId()).getStatus()).isEqualTo(ExportJobStatus.CANCELLED);
+        release.countDown();
+
+        awaitNoPartFiles();
+        assertThat(exportJobService.getStatus(running.getId()).getStatus()).isEqualTo(ExportJobStatus.CANCELLED);
+        verify(dataExportService, times(1)).buildMonthlyRecordsWorkbook(eq(2026), any());
+        assertThatThrownBy(() -> exportJobService.getResultFile(running.getId()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> exportJobService.cancel(running.getId()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("run - 导出异常时任务标记为失败")
+    void run_Failure() throws Exception {
+        exportJobService = newService(1, 10, Duration.ofHours(1));
+        doThrow(new RuntimeException("导出Excel失败: disk full"))
+                .when(dataExportService).buildFullDataWorkbook(eq(2026), any());
+
+        ExportJobResponse submitted = exportJobService.submit(request(ExportJobType.FULL_DATA, 2026));
+
+        ExportJobResponse finished = awaitFinished(submitted.getId());
+        assertThat(finished.getStatus()).isEqualTo(ExportJobStatus.FAILED);
+        assertThat(finished.getMessage()).isEqualTo("导出Excel失败: disk full");
+        assertThat(spoolDir.resolve(submitted.getId() + ".part")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("run - 导出抛出 Error 时任务同样标记为失败并删除半成品，后续任务照常执行")
+    void run_Error() throws Exception {
+        exportJobService = newService(1, 10, Duration.ofHours(1));
+        doThrow(new OutOfMemoryError("Java heap space"))
+                .when(dataExportService).buildFullDataWorkbook(eq(2026), any());
+
+        ExportJobResponse submitted = exportJobService.submit(request(ExportJobType.FULL_DATA, 2026));
+
+        ExportJobResponse finished = awaitFinished(submitted.getId());
+        assertThat(finished.getStatus()).isEqualTo(ExportJobStatus.FAILED);
+        assertThat(finished.getMessage()).isEqualTo("Java heap space");
+        awaitNoPartFiles();
+
+        ExportJobResponse next = exportJobService.submit(request(ExportJobType.MONTHLY_RECORDS_CSV, 2026));
+        assertThat(awaitFinished(next.getId()).getStatus()).isEqualTo(ExportJobStatus.SUCCEEDED);
+    }
+
+    @Test
+    @DisplayName("purgeExpired - 删除超过 TTL 的任务和文件")
+    void purgeExpired_RemovesJobAndFile() throws Exception {
+        exportJobService = newService(1, 10, Duration.ZERO);
+        ExportJobResponse submitted = exportJobService.submit(request(ExportJobType.MONTHLY_RECORDS_CSV, 2026));
+        awaitFinished(submitted.getId());
+        Path file = exportJobService.getResultFile(submitted.getId()).path();
+
+        assertThat(exportJobService.purgeExpired()).isEqualTo(1);
+
+        assertThat(file).doesNotExist();
+        assertThatThrownBy(() -> exportJobService.getStatus(submitted.getId()))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("启动时清理 spool 目录里上次运行遗留的文件，其他文件不动")
+    void constructor_CleansStaleFiles() throws Exception {
+        Path stale = Files.createFile(spoolDir.resolve("0f8fad5b-d9cb-469f-a165-70867728950e.xlsx"));
+        Path other = Files.createFile(spoolDir.resolve("finance.mv.db"));
+
+        exportJobService = newService(1, 10, Duration.ofHours(1));
+
+        assertThat(stale).doesNotExist();
+        assertThat(other).exists();
+    }
+
+    private ExportJobService newService(int threads, int queueCapacity, Duration ttl) {
+        return new ExportJobService(dataExportService, spoolDir.toString(), threads, queueCapacity, ttl);
+    }
+
+    private ExportJobRequest request(ExportJobType type, Integer year) {
+        ExportJobRequest request = new ExportJobRequest();
+        request.setType(type);
+        request.setYear(year);
+        return request;
+    }
+
+    private void blockExport(CountDownLatch started, CountDownLatch release) {
+        doAnswer(invocation -> {
+            ExportProgress progress = invocation.getArgument(1);
+            progress.update(1, 2);
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            progress.update(2, 2);
+            return null;
+        }).when(dataExportService).buildMonthlyRecordsWorkbook(eq(2026), any());
+    }
+
+    private ExportJobResponse awaitFinished(String id) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            ExportJobResponse response = exportJobService.getStatus(id);
+            if (response.getFinishedAt() != null) {
+                return response;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("导出任务未在预期时间内结束: " + id);
+    }
+
+    private void awaitNoPartFiles() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            try (var files = Files.list(spoolDir)) {
+                if (files.noneMatch(file -> file.toString().endsWith(".part"))) {
+                    return;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("半成品文件未被删除");
+    }
+}
@@ -1,6 +1,7 @@
 package com.finance.service;
 
 import com.finance.dto.request.MonthlyRecordRequest;
+import com.finance.dto.response.MonthlyDetailChangeResponse;
 import com.finance.dto.response.MonthlyRecordResponse;
 import com.finance.entity.*;
 import com.finance.enums.AssetGroup;
@@ -13,11 +14,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,9 +34,30 @@ class MonthlyRecordServiceTest {
     @Mock
     private MonthlyRecordRepository monthlyRecordRepository;
 
+    @Mock
+    private MonthlyAssetDetailRepository assetDetailRepository;
+
+    @Mock
+    private MonthlyLiabilityDetailRepository liabilityDetailRepository;
+
+    @Mock
+    private MonthlyIncomeDetailRepository incomeDetailRepository;
+
+    @Mock
+    private MonthlyExpenseDetailRepository expenseDetailRepository;
+
     @Mock
     private AnnualExpenseRepository annualExpenseRepository;
 
+    @Mock
+    private SpentAmountService spentAmountService;
+
+    @Mock
+    private YearlyRollupService yearlyRollupService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private MonthlyRecordService monthlyRecordService;
 
@@ -170,7 +195,7 @@ class MonthlyRecordServiceTest {
     @DisplayName("create - 成功创建月度记录")
     void create_Success() {
         when(monthlyRecordRepository.existsByYearAndMonth(2026, 1)).thenReturn(false);
-        when(annualExpenseRepository.findById(1L)).thenReturn(Optional.of(testAnnualExpense));
+        when(annualExpenseRepository.findAllById(Set.of(1L))).thenReturn(List.of(testAnnualExpense));
         when(monthlyRecordRepository.save(any(MonthlyRecord.class))).thenAnswer(invocation -> {
             MonthlyRecord record = invocation.getArgument(0);
             record.setId(1L);
@@ -199,7 +224,7 @@ class MonthlyRecordServiceTest {
     @DisplayName("create - 正确计算总资产")
     void create_CalculateTotalAsset() {
         when(monthlyRecordRepository.existsByYearAndMonth(2026, 1)).thenReturn(false);
-        when(annualExpenseRepository.findById(1L)).thenReturn(Optional.of(testAnnualExpense));
+        when(annualExpenseRepository.findAllById(Set.of(1L))).thenReturn(List.of(testAnnualExpense));
         when(monthlyRecordRepository.save(any(MonthlyRecord.class))).thenAnswer(invocation -> {
             MonthlyRecord record = invocation.getArgument(0);
             assertThat(record.getTotalAsset()).isEqualByComparingTo(BigDecimal.valueOf(50));
@@ -215,7 +240,7 @@ class MonthlyRecordServiceTest {
     @DisplayName("create - 正确计算总负债")
     void create_CalculateTotalLiability() {
         when(monthlyRecordRepository.existsByYearAndMonth(2026, 1)).thenReturn(false);
-        when(annualExpenseRepository.findById(1L)).thenReturn(Optional.of(testAnnualExpense));
+        when(annualExpenseRepository.findAllById(Set.of(1L))).thenReturn(List.of(testAnnualExpense));
         when(monthlyRecordRepository.save(any(MonthlyRecord.class))).thenAnswer(invocation -> {
             MonthlyRecord record = invocation.getArgument(0);
             assertThat(record.getTotalLiability()).isEqualByComparingTo(BigDecimal.valueOf(100));
@@ -229,7 +254,7 @@ class MonthlyRecordServiceTest {
     @DisplayName("create - 正确计算总收入和总支出")
     void create_CalculateTotals() {
         when(monthlyRecordRepository.existsByYearAndMonth(2026, 1)).thenReturn(false);
-        when(annualExpenseRepository.findById(1L)).thenReturn(Optional.of(testAnnualExpense));
+        when(annualExpenseRepository.findAllById(Set.of(1L))).thenReturn(List.of(testAnnualExpense));
         when(monthlyRecordRepository.save(any(MonthlyRecord.class))).thenAnswer(invocation -> {
             MonthlyRecord record = invocation.getArgument(0);
             assertThat(record.getTotalIncome()).isEqualByComparingTo(BigDecimal.valueOf(2.5));
@@ -302,7 +327,7 @@ class MonthlyRecordServiceTest {
     @DisplayName("update - 成功更新月度记录")
     void update_Success() {
         when(monthlyRecordRepository.findById(1L)).thenReturn(Optional.of(testRecord));
-        when(annualExpenseRepository.findById(1L)).thenReturn(Optional.of(testAnnualExpense));
+        when(annualExpenseRepository.findAllById(Set.of(1L))).thenReturn(List.of(testAnnualExpense));
         when(monthlyRecordRepository.save(any(MonthlyRecord.class))).thenReturn(testRecord);
 
         MonthlyRecordResponse response = monthlyRecordService.update(1L, testRequest);
@@ -311,6 +336,54 @@ class MonthlyRecordServiceTest {
         verify(monthlyRecordRepository).save(any(MonthlyRecord.class));
     }
 
+    @Test
+    @DisplayName("update - 按前后快照增量维护预算已支出金额")
+    void update_AppliesSpentDelta() {
+        when(monthlyRecordRepository.findById(1L)).thenReturn(Optional.of(testRecord));
+        when(annualExpenseRepository.findAllById(Set.of(1L))).thenReturn(List.of(testAnnualExpense));
+        when(monthlyRecordRepository.save(any(MonthlyRecord.class))).thenReturn(testRecord);
+        when(spentAmountService.snapshot(testRecord))
+                .thenReturn(Map.of())
+                .thenReturn(Map.of(1L, BigDecimal.valueOf(1.2)));
+
+        monthlyRecordService.update(1L, testRequest);
+
+        verify(spentAmountService).applyChange(2026, Map.of(), Map.of(1L, BigDecimal.valueOf(1.2)));
+    }
+
+    @Test
+    @DisplayName("update - 按 id 合并明细：原地更新、删除缺失行、插入新行")
+    void update_MergesDetailsById() {
+        MonthlyAssetDetail existingAsset = testRecord.getAssetDetails().get(0);
+        when(monthlyRecordRepository.findById(1L)).thenReturn(Optional.of(testRecord));
+        when(monthlyRecordRepository.save(any(MonthlyRecord.class))).thenReturn(testRecord);
+
+        MonthlyRecordRequest.AssetDetailDto assetDto = testRequest.getAssetDetails().get(0);
+        assetDto.setId(1L);
+        assetDto.setAmount(BigDecimal.valueOf(60));
+        testRequest.setLiabilityDetails(List.of());
+        MonthlyRecordRequest.IncomeDetailDto keptIncome = testRequest.getIncomeDetails().get(0);
+        keptIncome.setId(1L);
+        MonthlyRecordRequest.IncomeDetailDto newIncome = new MonthlyRecordRequest.IncomeDetailDto();
+        newIncome.setName("奖金");
+        newIncome.setAmount(BigDecimal.valueOf(1));
+        newIncome.setSortOrder(1);
+        testRequest.setIncomeDetails(List.of(newIncome, keptIncome));
+        testRequest.getExpenseDetails().get(0).setId(1L);
+        testRequest.getExpenseDetails().get(0).setAnnualExpenseId(null);
+
+        monthlyRecordService.update(1L, testRequest);
+
+        assertThat(testRecord.getAssetDetails()).containsExactly(existingAsset);
+        assertThat(existingAsset.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(60));
+        assertThat(testRecord.getLiabilityDetails()).isEmpty();
+        assertThat(testRecord.getIncomeDetails()).extracting(MonthlyIncomeDetail::getName).containsExactly("工资", "奖金");
+        assertThat(testRecord.getIncomeDetails().get(0).getId()).isEqualTo(1L);
+        assertThat(testRecord.getTotalAsset()).isEqualByComparingTo(BigDecimal.valueOf(60));
+        assertThat(testRecord.getTotalIncome()).isEqualByComparingTo(BigDecimal.valueOf(3.5));
+        verify(annualExpenseRepository, never()).findAllById(any());
+    }
+
     @Test
     @DisplayName("update - 记录不存在抛出异常")
     void update_NotFound() {
@@ -320,6 +393,51 @@ class MonthlyRecordServiceTest {
                 .isInstanceOf(EntityNotFoundException.class);
     }
 
+    @Test
+    @DisplayName("updateAssetDetail - 只改一行并按差额调整总资产")
+    void updateAssetDetail_AdjustsTotalByDelta() {
+        MonthlyAssetDetail detail = testRecord.getAssetDetails().get(0);
+        when(assetDetailRepository.findByIdAndMonthlyRecordId(1L, 1L)).thenReturn(Optional.of(detail));
+        MonthlyRecordRequest.AssetDetailDto dto = testRequest.getAssetDetails().get(0);
+        dto.setAmount(BigDecimal.valueOf(60));
+
+        MonthlyDetailChangeResponse<MonthlyRecordResponse.AssetDetailVo> response =
+                monthlyRecordService.updateAssetDetail(1L, 1L, dto);
+
+        assertThat(detail.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(60));
+        assertThat(response.getTotalAsset()).isEqualByComparingTo(BigDecimal.valueOf(60));
+        assertThat(response.getNetWorth()).isEqualByComparingTo(BigDecimal.valueOf(-40));
+        assertThat(response.getDetail().getId()).isEqualTo(1L);
+        verify(monthlyRecordRepository, never()).save(any());
+        verify(yearlyRollupService).refreshMonthlyRecords(2026);
+    }
+
+    @Test
+    @DisplayName("updateAssetDetail - 明细不属于该记录抛出异常")
+    void updateAssetDetail_NotFound() {
+        when(assetDetailRepository.findByIdAndMonthlyRecordId(9L, 1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> monthlyRecordService.updateAssetDetail(1L, 9L, testRequest.getAssetDetails().get(0)))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("deleteExpenseDetail - 删除一行支出并回退预算已支出金额")
+    void deleteExpenseDetail_RevertsSpent() {
+        MonthlyExpenseDetail detail = testRecord.getExpenseDetails().get(0);
+        detail.setAnnualExpense(testAnnualExpense);
+        when(expenseDetailRepository.findByIdAndMonthlyRecordId(1L, 1L)).thenReturn(Optional.of(detail));
+        when(spentAmountService.snapshot(detail)).thenReturn(Map.of(1L, BigDecimal.valueOf(1.2)));
+
+        MonthlyDetailChangeResponse<MonthlyRecordResponse.ExpenseDetailVo> response =
+                monthlyRecordService.deleteExpenseDetail(1L, 1L);
+
+        assertThat(response.getTotalExpense()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(response.getDetail()).isNull();
+        verify(expenseDetailRepository).delete(detail);
+        verify(spentAmountService).applyChange(2026, Map.of(1L, BigDecimal.valueOf(1.2)), Map.of());
+    }
+
     @Test
     @DisplayName("getPreviousTemplate - 成功获取上月模板")
     void getPreviousTemplate_Success() {
@@ -352,28 +470,59 @@ class MonthlyRecordServiceTest {
     @Test
     @DisplayName("delete - 成功删除月度记录")
     void delete_Success() {
-        when(monthlyRecordRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(monthlyRecordRepository).deleteById(1L);
+        when(monthlyRecordRepository.findYearById(1L)).thenReturn(Optional.of(2026));
+        when(expenseDetailRepository.sumAmountByAnnualExpenseForRecords(List.of(1L)))
+                .thenReturn(Map.of(1L, BigDecimal.valueOf(1.2)));
 
         monthlyRecordService.delete(1L);
 
-        verify(monthlyRecordRepository).deleteById(1L);
+        verify(spentAmountService).applyChange(2026, Map.of(1L, BigDecimal.valueOf(1.2)), Map.of());
+        verify(assetDetailRepository).deleteByMonthlyRecordIds(List.of(1L));
+        verify(expenseDetailRepository).deleteByMonthlyRecordIds(List.of(1L));
+        verify(monthlyRecordRepository).deleteByIds(List.of(1L));
+        verify(monthlyRecordRepository, never()).findById(any());
+        verify(yearlyRollupService).refreshMonthlyRecords(2026);
     }
 
     @Test
     @DisplayName("delete - 记录不存在抛出异常")
     void delete_NotFound() {
-        when(monthlyRecordRepository.existsById(1L)).thenReturn(false);
+        when(monthlyRecordRepository.findYearById(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> monthlyRecordService.delete(1L))
                 .isInstanceOf(EntityNotFoundException.class);
     }
 
+    @Test
+    @DisplayName("deleteByYear - 按年批量删除明细和记录")
+    void deleteByYear_BulkDeletes() {
+        when(monthlyRecordRepository.findIdsByYear(2026)).thenReturn(List.of(1L, 2L));
+        when(expenseDetailRepository.sumAmountByAnnualExpenseForRecords(List.of(1L, 2L))).thenReturn(Map.of());
+
+        int deleted = monthlyRecordService.deleteByYear(2026);
+
+        assertThat(deleted).isEqualTo(2);
+        verify(liabilityDetailRepository).deleteByMonthlyRecordIds(List.of(1L, 2L));
+        verify(incomeDetailRepository).deleteByMonthlyRecordIds(List.of(1L, 2L));
+        verify(monthlyRecordRepository).deleteByIds(List.of(1L, 2L));
+        verify(yearlyRollupService).refreshMonthlyRecords(2026);
+        verify(eventPublisher).publishEvent(new DataChangedEvent(Set.of(2026, 2027)));
+    }
+
+    @Test
+    @DisplayName("deleteByYear - 没有记录时不执行删除")
+    void deleteByYear_NoRecords() {
+        when(monthlyRecordRepository.findIdsByYear(2026)).thenReturn(List.of());
+
+        assertThat(monthlyRecordService.deleteByYear(2026)).isZero();
+        verify(monthlyRecordRepository, never()).deleteByIds(any());
+    }
+
     @Test
     @DisplayName("create - 支出关联年度预算分类")
     void create_LinkExpenseToAnnualBudget() {
         when(monthlyRecordRepository.existsByYearAndMonth(2026, 1)).thenReturn(false);
-        when(annualExpenseRepository.findById(1L)).thenReturn(Optional.of(testAnnualExpense));
+        when(annualExpenseRepository.findAllById(Set.of(1L))).thenReturn(List.of(testAnnualExpense));
         when(monthlyRecordRepository.save(any(MonthlyRecord.class))).thenAnswer(invocation -> {
             MonthlyRecord record = invocation.getArgument(0);
             assertThat(record.getExpenseDetails().get(0).getAnnualExpense()).isNotNull();
@@ -383,4 +532,52 @@ class MonthlyRecordServiceTest {
 
         monthlyRecordService.create(testRequest);
     }
+
+    @Test
+    @DisplayName("create - 所有预算项引用一次查询解析")
+    void create_ResolveAnnualExpensesInOneQuery() {
+        AnnualExpense travel = new AnnualExpense();
+        travel.setId(2L);
+        travel.setCategory("旅游");
+        List<MonthlyRecordRequest.ExpenseDetailDto> expenses = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            MonthlyRecordRequest.ExpenseDetailDto dto = new MonthlyRecordRequest.ExpenseDetailDto();
+            dto.setName("支出" + i);
+            dto.setAmount(BigDecimal.ONE);
+            dto.setAnnualExpenseId(i % 2 == 0 ? 1L : 2L);
+            expenses.add(dto);
+        }
+        testRequest.setExpenseDetails(expenses);
+        when(monthlyRecordRepository.existsByYearAndMonth(2026, 1)).thenReturn(false);
+        when(annualExpenseRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(testAnnualExpense, travel));
+        when(monthlyRecordRepository.save(any(MonthlyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MonthlyRecordResponse response = monthlyRecordService.create(testRequest);
+
+        assertThat(response.getExpenseDetails()).extracting(MonthlyRecordResponse.ExpenseDetailVo::getAnnualExpenseId)
+                .containsOnly(1L, 2L);
+        verify(annualExpenseRepository, times(1)).findAllById(any());
+        verify(annualExpenseRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("create - 不存在的预算项一并报错")
+    void create_UnknownAnnualExpenses() {
+        MonthlyRecordRequest.ExpenseDetailDto unknown = new MonthlyRecordRequest.ExpenseDetailDto();
+        unknown.setName("其他");
+        unknown.setAmount(BigDecimal.ONE);
+        unknown.setAnnualExpenseId(8L);
+        MonthlyRecordRequest.ExpenseDetailDto another = new MonthlyRecordRequest.ExpenseDetailDto();
+        another.setName("其他");
+        another.setAmount(BigDecimal.ONE);
+        another.setAnnualExpenseId(7L);
+        testRequest.setExpenseDetails(List.of(testRequest.getExpenseDetails().get(0), unknown, another));
+        when(monthlyRecordRepository.existsByYearAndMonth(2026, 1)).thenReturn(false);
+        when(annualExpenseRepository.findAllById(Set.of(1L, 7L, 8L))).thenReturn(List.of(testAnnualExpense));
+
+        assertThatThrownBy(() -> monthlyRecordService.create(testRequest))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("[7, 8]");
+        verify(monthlyRecordRepository, never()).save(any());
+    }
 }
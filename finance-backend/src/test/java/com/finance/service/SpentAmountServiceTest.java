@@ -0,0 +1,125 @@
+package com.finance.service;
+
+import com.finance.entity.*;
+import com.finance.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpentAmountServiceTest {
+
+    @Mock
+    private AnnualExpenseRepository annualExpenseRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private SpentAmountService spentAmountService;
+
+    private AnnualBalancePlan testPlan;
+    private AnnualExpense travel;
+    private AnnualExpense gifts;
+
+    @BeforeEach
+    void setUp() {
+        testPlan = new AnnualBalancePlan();
+        testPlan.setId(1L);
+        testPlan.setYear(2026);
+
+        travel = new AnnualExpense();
+        travel.setId(1L);
+        travel.setCategory("旅游");
+        travel.setBudgetAmount(BigDecimal.valueOf(3));
+        travel.setSpentAmount(BigDecimal.valueOf(1));
+        testPlan.addAnnualExpense(travel);
+
+        gifts = new AnnualExpense();
+        gifts.setId(2L);
+        gifts.setCategory("人情");
+        gifts.setBudgetAmount(BigDecimal.valueOf(2));
+        gifts.setSpentAmount(BigDecimal.ZERO);
+        testPlan.addAnnualExpense(gifts);
+    }
+
+    @Test
+    @DisplayName("snapshot - 按预算项汇总已关联的支出")
+    void snapshot_SumsLinkedExpenses() {
+        MonthlyRecord record = new MonthlyRecord();
+        record.addExpenseDetail(expenseDetail(travel, BigDecimal.valueOf(0.5)));
+        record.addExpenseDetail(expenseDetail(travel, BigDecimal.valueOf(0.3)));
+        record.addExpenseDetail(expenseDetail(null, BigDecimal.valueOf(9)));
+
+        Map<Long, BigDecimal> snapshot = spentAmountService.snapshot(record);
+
+        assertThat(snapshot).containsOnlyKeys(1L);
+        assertThat(snapshot.get(1L)).isEqualByComparingTo(BigDecimal.valueOf(0.8));
+    }
+
+    @Test
+    @DisplayName("applyChange - 只对变化的预算项原子地累加差额")
+    void applyChange_AddsDeltas() {
+        spentAmountService.applyChange(2026,
+                Map.of(1L, BigDecimal.valueOf(0.5), 3L, BigDecimal.ONE),
+                Map.of(1L, BigDecimal.valueOf(0.2), 2L, BigDecimal.valueOf(0.4), 3L, BigDecimal.ONE));
+
+        verify(annualExpenseRepository).addSpentAmount(1L, 2026, new BigDecimal("-0.3"));
+        verify(annualExpenseRepository).addSpentAmount(2L, 2026, new BigDecimal("0.4"));
+        verify(annualExpenseRepository, never()).addSpentAmount(eq(3L), anyInt(), any());
+        // 不加载实体做读改写
+        verify(annualExpenseRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("applyChange - 没有差额时不更新")
+    void applyChange_NoDelta() {
+        spentAmountService.applyChange(2026, Map.of(1L, BigDecimal.ONE), Map.of(1L, BigDecimal.valueOf(1.00)));
+
+        verify(annualExpenseRepository, never()).addSpentAmount(any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("reconcile - 在数据库里一次修正与全量汇总不一致的值")
+    void reconcile_FixesDrift() {
+        when(annualExpenseRepository.reconcileSpentAmounts()).thenReturn(1);
+
+        int fixed = spentAmountService.reconcile();
+
+        assertThat(fixed).isEqualTo(1);
+        verify(eventPublisher).publishEvent(any(DataChangedEvent.class));
+        // 不加载实体做读改写
+        verify(annualExpenseRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("reconcile - 没有不一致时不发布变更事件")
+    void reconcile_NoDrift() {
+        when(annualExpenseRepository.reconcileSpentAmounts()).thenReturn(0);
+
+        assertThat(spentAmountService.reconcile()).isZero();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private MonthlyExpenseDetail expenseDetail(AnnualExpense annualExpense, BigDecimal amount) {
+        MonthlyExpenseDetail detail = new MonthlyExpenseDetail();
+        detail.setName("支出");
+        detail.setAmount(amount);
+        detail.setAnnualExpense(annualExpense);
+        return detail;
+    }
+}